@@ -1,18 +1,15 @@
 package book.realworldsoftwaredevelopment.chapter2.v2;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 public class BankStatementCSVParserV2 {
 
-    private static final DateTimeFormatter DATE_PATTERN = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-
     private BankTransaction parseFromCSV(final String line) {
         final String[] columns = line.split(",");
 
-        final LocalDate date = LocalDate.parse(columns[0], DATE_PATTERN);
+        final LocalDate date = BankStatementDateDecoder.parse(columns[0], 0, columns[0].length());
         final double amount = Double.parseDouble(columns[1]);
         final String description = columns[2];
 
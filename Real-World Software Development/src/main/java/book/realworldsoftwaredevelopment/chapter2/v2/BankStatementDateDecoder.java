@@ -0,0 +1,130 @@
+package book.realworldsoftwaredevelopment.chapter2.v2;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+// "dd-MM-yyyy" 형식은 자릿수 위치가 고정되어 있으므로 DateTimeFormatter 를 거치지 않고 숫자를 바로 읽는다.
+// 형식에 맞지 않는 입력만 DateTimeFormatter 로 넘겨서 기존과 같은 결과(또는 예외)를 만든다.
+public final class BankStatementDateDecoder {
+
+    public static final DateTimeFormatter DATE_PATTERN = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    // toEpochDay 가 고정 형식으로 읽지 못했을 때 반환하는 값
+    public static final int MALFORMED = Integer.MIN_VALUE;
+
+    private static final int LENGTH = 10;
+    private static final int DAYS_0000_TO_1970 = 719_528;
+
+    private BankStatementDateDecoder() {
+    }
+
+    public static LocalDate parse(final CharSequence text, final int start, final int end) {
+        final int epochDay = toEpochDay(text, start, end);
+        if (epochDay == MALFORMED) {
+            return LocalDate.parse(text.subSequence(start, end), DATE_PATTERN);
+        }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static LocalDate parse(final ByteBuffer buffer, final int start, final int end) {
+        final int epochDay = toEpochDay(buffer, start, end);
+        if (epochDay == MALFORMED) {
+            final byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return LocalDate.parse(new String(bytes, StandardCharsets.UTF_8), DATE_PATTERN);
+        }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    // LocalDate 를 만들지 않고 1970-01-01 기준 일수만 계산한다.
+    public static int toEpochDay(final CharSequence text, final int start, final int end) {
+        if (end - start != LENGTH || text.charAt(start + 2) != '-' || text.charAt(start + 5) != '-') {
+            return MALFORMED;
+        }
+        final int day = twoDigits(text.charAt(start), text.charAt(start + 1));
+        final int month = twoDigits(text.charAt(start + 3), text.charAt(start + 4));
+        final int year = twoDigits(text.charAt(start + 6), text.charAt(start + 7)) * 100
+                + twoDigits(text.charAt(start + 8), text.charAt(start + 9));
+        return toEpochDay(year, month, day);
+    }
+
+    public static int toEpochDay(final ByteBuffer buffer, final int start, final int end) {
+        if (end - start != LENGTH || buffer.get(start + 2) != '-' || buffer.get(start + 5) != '-') {
+            return MALFORMED;
+        }
+        final int day = twoDigits(buffer.get(start), buffer.get(start + 1));
+        final int month = twoDigits(buffer.get(start + 3), buffer.get(start + 4));
+        final int year = twoDigits(buffer.get(start + 6), buffer.get(start + 7)) * 100
+                + twoDigits(buffer.get(start + 8), buffer.get(start + 9));
+        return toEpochDay(year, month, day);
+    }
+
+    // LocalDate.ofEpochDay(epochDay).getMonthValue() 와 같은 값을 객체 생성 없이 계산한다.
+    public static int monthOf(final int epochDay) {
+        final int dayOfEra = dayOfEra(epochDay);
+        final int yearOfEra = yearOfEra(dayOfEra);
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    }
+
+    // 3월 1일을 한 해의 시작으로 보는 400년 주기 계산 (LocalDate.ofEpochDay 와 같은 방식)
+    private static int dayOfEra(final int epochDay) {
+        final int zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        final int era = (zeroDay >= 0 ? zeroDay : zeroDay - 146_096) / 146_097;
+        return zeroDay - era * 146_097;
+    }
+
+    private static int yearOfEra(final int dayOfEra) {
+        return (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    }
+
+    private static int twoDigits(final int tens, final int ones) {
+        final int t = tens - '0';
+        final int o = ones - '0';
+        if (t < 0 || t > 9 || o < 0 || o > 9) {
+            // 음수가 되도록 만들어서 아래 범위 검사에서 걸러지게 한다.
+            return -10_000;
+        }
+        return t * 10 + o;
+    }
+
+    // LocalDate.toEpochDay 와 같은 계산. 월말을 넘는 날짜는 DateTimeFormatter 의 보정 규칙을 따르도록 MALFORMED 로 돌려보낸다.
+    private static int toEpochDay(final int year, final int month, final int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return MALFORMED;
+        }
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+}
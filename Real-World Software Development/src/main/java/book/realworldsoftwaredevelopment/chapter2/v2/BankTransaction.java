@@ -2,13 +2,41 @@ package book.realworldsoftwaredevelopment.chapter2.v2;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 
 @Data
 public class BankTransaction {
 
     private final LocalDate date;
-    private final double amount;
+    // 금액은 센트 단위 정수로 보관한다. double 합산은 건수가 많아질수록 오차가 쌓인다.
+    private final long amountInCents;
     private final String description;
 
+    public BankTransaction(final LocalDate date, final double amount, final String description) {
+        this(date, toCents(amount), description);
+    }
+
+    private BankTransaction(final LocalDate date, final long amountInCents, final String description) {
+        this.date = date;
+        this.amountInCents = amountInCents;
+        this.description = description;
+    }
+
+    public static BankTransaction ofCents(final LocalDate date, final long amountInCents, final String description) {
+        return new BankTransaction(date, amountInCents, description);
+    }
+
+    // 소수점 셋째 자리에서 0 에서 먼 쪽으로 반올림한다(-50.255 -> -5026). BankStatementCSVScanner.parseCents 와 같은 규칙이다.
+    // amount * 100 을 Math.round 하면 1.005 처럼 이진수로 딱 떨어지지 않는 값과 음수의 .5 에서 결과가 달라진다.
+    public static long toCents(final double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // 기존 코드와의 호환을 위한 double 값
+    public double getAmount() {
+        return amountInCents / 100d;
+    }
+
 }
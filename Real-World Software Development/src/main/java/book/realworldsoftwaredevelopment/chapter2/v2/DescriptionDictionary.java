@@ -0,0 +1,167 @@
+package book.realworldsoftwaredevelopment.chapter2.v2;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// 실제 거래 내역은 수천 개 정도의 가맹점 이름("Tesco", "Salary", ...)이 수백만 번 반복된다.
+// 같은 description 은 하나의 String 인스턴스와 int 코드를 공유하도록 한다.
+// 여러 스레드에서 동시에 파싱해도 되도록, 조회는 잠금 없이 하고 새 항목을 추가할 때만 잠근다.
+// 잠그지 않은 스레드가 읽는 중인 배열에 새 항목을 쓰므로 칸마다 volatile 로 읽고 쓰는 AtomicReferenceArray 를 쓴다.
+public class DescriptionDictionary {
+
+    private final Map<String, Entry> entriesByDescription = new ConcurrentHashMap<>();
+    // UTF-8 바이트로 바로 찾기 위한 open addressing 테이블. 크기를 늘릴 때는 새 배열을 다 채운 뒤 교체한다.
+    private volatile AtomicReferenceArray<Entry> entriesByBytes = new AtomicReferenceArray<>(64);
+    private volatile AtomicReferenceArray<String> descriptions = new AtomicReferenceArray<>(16);
+    private int size;
+
+    public int size() {
+        return entriesByDescription.size();
+    }
+
+    public String intern(final String description) {
+        return entryOf(description).description;
+    }
+
+    public int encode(final String description) {
+        return entryOf(description).code;
+    }
+
+    // 이미 등록된 description 이면 String 을 새로 만들지 않는다.
+    public String intern(final ByteBuffer buffer, final int start, final int end) {
+        return entryOf(buffer, start, end).description;
+    }
+
+    public int encode(final ByteBuffer buffer, final int start, final int end) {
+        return entryOf(buffer, start, end).code;
+    }
+
+    public String decode(final int code) {
+        return descriptions.get(code);
+    }
+
+    // 등록되지 않은 description 이면 -1
+    public int codeOf(final String description) {
+        final Entry entry = entriesByDescription.get(description);
+        return entry == null ? -1 : entry.code;
+    }
+
+    public long estimatedSizeInBytes() {
+        long total = 0;
+        for (final Entry entry : entriesByDescription.values()) {
+            total += 96 + entry.description.length() + entry.bytes.length;
+        }
+        return total;
+    }
+
+    private Entry entryOf(final String description) {
+        final Entry entry = entriesByDescription.get(description);
+        return entry != null ? entry : add(description);
+    }
+
+    private Entry entryOf(final ByteBuffer buffer, final int start, final int end) {
+        final int hash = hash(buffer, start, end);
+        final AtomicReferenceArray<Entry> table = entriesByBytes;
+        final int mask = table.length() - 1;
+        Entry entry;
+        for (int slot = hash & mask; (entry = table.get(slot)) != null; slot = (slot + 1) & mask) {
+            if (entry.hash == hash && entry.matches(buffer, start, end)) {
+                return entry;
+            }
+        }
+        // 처음 보는 description 이거나 다른 스레드가 막 추가한 경우 - 잠근 상태에서 다시 확인한다.
+        final byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return add(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private synchronized Entry add(final String description) {
+        final Entry existing = entriesByDescription.get(description);
+        if (existing != null) {
+            return existing;
+        }
+        final byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        final Entry entry = new Entry(description, size, bytes, hash(ByteBuffer.wrap(bytes), 0, bytes.length));
+
+        // 바이트 테이블에서 코드를 얻은 스레드도 decode 할 수 있도록 description 을 테이블보다 먼저 쓴다.
+        final AtomicReferenceArray<String> currentDescriptions = descriptions;
+        if (size == currentDescriptions.length()) {
+            final AtomicReferenceArray<String> grown = new AtomicReferenceArray<>(size * 2);
+            for (int code = 0; code < size; code++) {
+                grown.set(code, currentDescriptions.get(code));
+            }
+            grown.set(size, description);
+            descriptions = grown;
+        } else {
+            currentDescriptions.set(size, description);
+        }
+        size++;
+
+        final AtomicReferenceArray<Entry> table = entriesByBytes;
+        if (size * 2 > table.length()) {
+            final AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(table.length() * 2);
+            for (int slot = 0; slot < table.length(); slot++) {
+                final Entry other = table.get(slot);
+                if (other != null) {
+                    insert(grown, other);
+                }
+            }
+            insert(grown, entry);
+            entriesByBytes = grown;
+        } else {
+            insert(table, entry);
+        }
+
+        // 맵에 넣는 것이 마지막이어야 다른 스레드가 코드를 얻었을 때 decode 도 항상 성공한다.
+        entriesByDescription.put(description, entry);
+        return entry;
+    }
+
+    private static void insert(final AtomicReferenceArray<Entry> table, final Entry entry) {
+        final int mask = table.length() - 1;
+        int slot = entry.hash & mask;
+        while (table.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, entry);
+    }
+
+    private static int hash(final ByteBuffer buffer, final int start, final int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        private final String description;
+        private final int code;
+        private final byte[] bytes;
+        private final int hash;
+
+        private Entry(final String description, final int code, final byte[] bytes, final int hash) {
+            this.description = description;
+            this.code = code;
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        private boolean matches(final ByteBuffer buffer, final int start, final int end) {
+            if (end - start != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -28,10 +28,14 @@ public class BankStatementAnalyzerV3 {
     }
 
     private static void collectSummary(BankStatementProcessorV3 bankStatementProcessor) {
-        System.out.println("The total for all transactions is " + bankStatementProcessor.calculateTotalAmount());
-        System.out.println("The total for all transactions in January is " + bankStatementProcessor.caculateTotalInMonth(Month.JANUARY));
-        System.out.println("The total for all transactions in February is " + bankStatementProcessor.caculateTotalInMonth(Month.FEBRUARY));
-        System.out.println("The total salary received is " + bankStatementProcessor.calculateTotalForCategory("Salary"));
+        // 집계마다 전체 거래를 다시 순회하지 않도록 한 번만 순회해서 모든 합계를 구한다.
+        final BankStatementSummary summary = new BankStatementSummary();
+        bankStatementProcessor.summarize(summary);
+
+        System.out.println("The total for all transactions is " + summary.calculateTotalAmount());
+        System.out.println("The total for all transactions in January is " + summary.caculateTotalInMonth(Month.JANUARY));
+        System.out.println("The total for all transactions in February is " + summary.caculateTotalInMonth(Month.FEBRUARY));
+        System.out.println("The total salary received is " + summary.calculateTotalForCategory("Salary"));
     }
 
 }
@@ -0,0 +1,121 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.time.Month;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 월별, 카테고리별로 행 번호 목록과 합계를 미리 만들어 둔다. 날짜 구간 질의는 DateRangeIndex 가 맡는다.
+// 같은 거래 내역에 같은 질의를 반복한다면 매번 전체를 순회하는 것보다 싸다.
+// 인덱스를 만든 뒤 원본 리스트가 바뀌면 안 된다.
+public class BankStatementIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final int[][] rowsByMonth;
+    private final long[] totalsByMonth;
+    private final Map<String, Postings> postingsByCategory;
+    private final DateRangeIndex dateRangeIndex;
+    private final long buildTimeNanos;
+
+    private BankStatementIndex(final int[][] rowsByMonth, final long[] totalsByMonth,
+                               final Map<String, Postings> postingsByCategory, final DateRangeIndex dateRangeIndex,
+                               final long buildTimeNanos) {
+        this.rowsByMonth = rowsByMonth;
+        this.totalsByMonth = totalsByMonth;
+        this.postingsByCategory = postingsByCategory;
+        this.dateRangeIndex = dateRangeIndex;
+        this.buildTimeNanos = buildTimeNanos;
+    }
+
+    public static BankStatementIndex build(final List<BankTransaction> bankTransactions) {
+        final long start = System.nanoTime();
+
+        final Postings[] postingsByMonth = new Postings[Month.values().length];
+        for (int i = 0; i < postingsByMonth.length; i++) {
+            postingsByMonth[i] = new Postings();
+        }
+        final Map<String, Postings> postingsByCategory = new HashMap<>();
+
+        for (int row = 0; row < bankTransactions.size(); row++) {
+            final BankTransaction bankTransaction = bankTransactions.get(row);
+            final long amountInCents = bankTransaction.getAmountInCents();
+            postingsByMonth[bankTransaction.getDate().getMonthValue() - 1].add(row, amountInCents);
+            postingsByCategory.computeIfAbsent(bankTransaction.getDescription(), category -> new Postings()).add(row, amountInCents);
+        }
+
+        final int[][] rowsByMonth = new int[postingsByMonth.length][];
+        final long[] totalsByMonth = new long[postingsByMonth.length];
+        for (int i = 0; i < postingsByMonth.length; i++) {
+            postingsByMonth[i].trim();
+            rowsByMonth[i] = postingsByMonth[i].rows;
+            totalsByMonth[i] = postingsByMonth[i].total;
+        }
+        postingsByCategory.values().forEach(Postings::trim);
+
+        final DateRangeIndex dateRangeIndex = DateRangeIndex.build(bankTransactions);
+
+        return new BankStatementIndex(rowsByMonth, totalsByMonth, postingsByCategory, dateRangeIndex, System.nanoTime() - start);
+    }
+
+    // O(1) - 미리 계산한 합계
+    public long totalInMonthInCents(final Month month) {
+        return totalsByMonth[month.getValue() - 1];
+    }
+
+    public long totalForCategoryInCents(final String category) {
+        final Postings postings = postingsByCategory.get(category);
+        return postings == null ? 0 : postings.total;
+    }
+
+    // O(일치하는 건수) - 행 번호 목록
+    public int[] rowsInMonth(final Month month) {
+        return rowsByMonth[month.getValue() - 1].clone();
+    }
+
+    public int[] rowsForCategory(final String category) {
+        final Postings postings = postingsByCategory.get(category);
+        return postings == null ? NO_ROWS : postings.rows.clone();
+    }
+
+    public DateRangeIndex getDateRangeIndex() {
+        return dateRangeIndex;
+    }
+
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    // 행 번호 배열, 합계, 카테고리 맵 항목, 날짜 인덱스의 대략적인 크기
+    public long estimatedSizeInBytes() {
+        long size = dateRangeIndex.estimatedSizeInBytes();
+        for (final int[] rows : rowsByMonth) {
+            size += 16 + (long) rows.length * Integer.BYTES + Long.BYTES;
+        }
+        for (final Postings postings : postingsByCategory.values()) {
+            size += 64 + (long) postings.rows.length * Integer.BYTES;
+        }
+        return size;
+    }
+
+    private static class Postings {
+        private int[] rows = new int[4];
+        private int size;
+        private long total;
+
+        private void add(final int row, final long amountInCents) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+            total += amountInCents;
+        }
+
+        private void trim() {
+            rows = Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import java.time.Month;
+
+public interface BankStatementProcessor {
+
+    // 합계는 센트 단위 long 으로 정확하게 누적하고, double 은 마지막에 한 번만 변환한다.
+    long calculateTotalAmountInCents();
+
+    long calculateTotalInMonthInCents(Month month);
+
+    long calculateTotalForCategoryInCents(String category);
+
+    default double calculateTotalAmount() {
+        return calculateTotalAmountInCents() / 100d;
+    }
+
+    default double caculateTotalInMonth(final Month month) {
+        return calculateTotalInMonthInCents(month) / 100d;
+    }
+
+    default double calculateTotalForCategory(final String category) {
+        return calculateTotalForCategoryInCents(category) / 100d;
+    }
+}
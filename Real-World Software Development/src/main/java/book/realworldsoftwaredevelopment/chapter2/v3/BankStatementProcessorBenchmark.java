@@ -0,0 +1,66 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 객체 리스트(BankStatementProcessorV3)와 컬럼 배열(ColumnarBankStatementProcessor)의 집계 속도 비교
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgs = {"-Xms4G", "-Xmx4G"})
+public class BankStatementProcessorBenchmark {
+
+    private static final int ROWS = 5_000_000;
+    private static final String[] DESCRIPTIONS = {"Tesco", "Salary", "Royal Albert Hall", "Cinema", "Rent"};
+
+    private BankStatementProcessor listProcessor;
+    private BankStatementProcessor columnarProcessor;
+
+    @Setup
+    public void setUp() {
+        final List<BankTransaction> bankTransactions = new ArrayList<>(ROWS);
+        final LocalDate start = LocalDate.of(2015, Month.JANUARY, 1);
+        for (int i = 0; i < ROWS; i++) {
+            bankTransactions.add(BankTransaction.ofCents(start.plusDays(i % 1_000), (i % 10_000) - 5_000,
+                    new String(DESCRIPTIONS[i % DESCRIPTIONS.length])));
+        }
+        listProcessor = new BankStatementProcessorV3(bankTransactions);
+        columnarProcessor = new ColumnarBankStatementProcessor(TransactionTable.from(bankTransactions));
+    }
+
+    @Benchmark
+    public long listTotalInMonth() {
+        return listProcessor.calculateTotalInMonthInCents(Month.FEBRUARY);
+    }
+
+    @Benchmark
+    public long columnarTotalInMonth() {
+        return columnarProcessor.calculateTotalInMonthInCents(Month.FEBRUARY);
+    }
+
+    @Benchmark
+    public long listTotalForCategory() {
+        return listProcessor.calculateTotalForCategoryInCents("Salary");
+    }
+
+    @Benchmark
+    public long columnarTotalForCategory() {
+        return columnarProcessor.calculateTotalForCategoryInCents("Salary");
+    }
+
+    @Benchmark
+    public long listTotalAmount() {
+        return listProcessor.calculateTotalAmountInCents();
+    }
+
+    @Benchmark
+    public long columnarTotalAmount() {
+        return columnarProcessor.calculateTotalAmountInCents();
+    }
+}
@@ -1,41 +1,151 @@
 package book.realworldsoftwaredevelopment.chapter2.v3;
 
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
-@RequiredArgsConstructor
-public class BankStatementProcessorV3 {
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class BankStatementProcessorV3 implements BankStatementProcessor {
 
     private final List<BankTransaction> bankTransactions;
+    // 인덱스 없이 만들었으면 null - 질의할 때마다 전체를 순회한다.
+    private final BankStatementIndex bankStatementIndex;
 
-    public double calculateTotalAmount() {
-        double total = 0;
+    public BankStatementProcessorV3(final List<BankTransaction> bankTransactions) {
+        this(bankTransactions, null);
+    }
+
+    // 같은 거래 내역에 질의를 반복할 때 - 생성 시점에 월/카테고리/날짜 인덱스를 만들어 둔다.
+    public static BankStatementProcessorV3 withIndex(final List<BankTransaction> bankTransactions) {
+        return new BankStatementProcessorV3(bankTransactions, BankStatementIndex.build(bankTransactions));
+    }
+
+    public Optional<BankStatementIndex> getBankStatementIndex() {
+        return Optional.ofNullable(bankStatementIndex);
+    }
+
+    @Override
+    public long calculateTotalAmountInCents() {
+        long total = 0;
         for (BankTransaction bankTransaction : bankTransactions) {
-            total += bankTransaction.getAmount();
+            total += bankTransaction.getAmountInCents();
         }
         return total;
     }
 
-    public double caculateTotalInMonth(final Month month) {
-        double total = 0;
+    @Override
+    public long calculateTotalInMonthInCents(final Month month) {
+        if (bankStatementIndex != null) {
+            return bankStatementIndex.totalInMonthInCents(month);
+        }
+        long total = 0;
         for (BankTransaction bankTransaction : bankTransactions) {
             if (bankTransaction.getDate().getMonth() == month) {
-                total += bankTransaction.getAmount();
+                total += bankTransaction.getAmountInCents();
             }
         }
         return total;
     }
 
-    public double calculateTotalForCategory(final String category) {
-        double total = 0;
+    @Override
+    public long calculateTotalForCategoryInCents(final String category) {
+        if (bankStatementIndex != null) {
+            return bankStatementIndex.totalForCategoryInCents(category);
+        }
+        long total = 0;
         for (BankTransaction bankTransaction : bankTransactions) {
             if (bankTransaction.getDescription().equals(category)) {
-                total += bankTransaction.getAmount();
+                total += bankTransaction.getAmountInCents();
+            }
+        }
+        return total;
+    }
+
+    // Month 만 비교하는 calculateTotalInMonthInCents 와 달리 연도까지 비교한다.
+    public long calculateTotalInMonthInCents(final YearMonth yearMonth) {
+        return calculateTotalBetweenInCents(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+
+    // from, to 모두 포함한다.
+    public long calculateTotalBetweenInCents(final LocalDate from, final LocalDate to) {
+        if (bankStatementIndex != null) {
+            return bankStatementIndex.getDateRangeIndex().totalBetweenInCents(from, to);
+        }
+        long total = 0;
+        for (BankTransaction bankTransaction : bankTransactions) {
+            if (isBetween(bankTransaction.getDate(), from, to)) {
+                total += bankTransaction.getAmountInCents();
             }
         }
         return total;
     }
+
+    public List<BankTransaction> findTransactionsInMonth(final YearMonth yearMonth) {
+        return findTransactionsBetween(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+
+    // 인덱스가 있으면 날짜순, 없으면 원래 순서로 돌려준다.
+    public List<BankTransaction> findTransactionsBetween(final LocalDate from, final LocalDate to) {
+        if (bankStatementIndex != null) {
+            return rowsToTransactions(bankStatementIndex.getDateRangeIndex().rowsBetween(from, to));
+        }
+        final List<BankTransaction> result = new ArrayList<>();
+        for (BankTransaction bankTransaction : bankTransactions) {
+            if (isBetween(bankTransaction.getDate(), from, to)) {
+                result.add(bankTransaction);
+            }
+        }
+        return result;
+    }
+
+    public List<BankTransaction> findTransactionsInMonth(final Month month) {
+        if (bankStatementIndex != null) {
+            return rowsToTransactions(bankStatementIndex.rowsInMonth(month));
+        }
+        final List<BankTransaction> result = new ArrayList<>();
+        for (BankTransaction bankTransaction : bankTransactions) {
+            if (bankTransaction.getDate().getMonth() == month) {
+                result.add(bankTransaction);
+            }
+        }
+        return result;
+    }
+
+    public List<BankTransaction> findTransactionsForCategory(final String category) {
+        if (bankStatementIndex != null) {
+            return rowsToTransactions(bankStatementIndex.rowsForCategory(category));
+        }
+        final List<BankTransaction> result = new ArrayList<>();
+        for (BankTransaction bankTransaction : bankTransactions) {
+            if (bankTransaction.getDescription().equals(category)) {
+                result.add(bankTransaction);
+            }
+        }
+        return result;
+    }
+
+    public void summarize(final BankStatementSummary summary) {
+        for (BankTransaction bankTransaction : bankTransactions) {
+            summary.accept(bankTransaction);
+        }
+    }
+
+    private static boolean isBetween(final LocalDate date, final LocalDate from, final LocalDate to) {
+        return !date.isBefore(from) && !date.isAfter(to);
+    }
+
+    private List<BankTransaction> rowsToTransactions(final int[] rows) {
+        final List<BankTransaction> result = new ArrayList<>(rows.length);
+        for (final int row : rows) {
+            result.add(bankTransactions.get(row));
+        }
+        return result;
+    }
 }
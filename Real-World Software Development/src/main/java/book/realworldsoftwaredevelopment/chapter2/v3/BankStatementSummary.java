@@ -0,0 +1,106 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// 집계마다 거래 내역을 다시 순회하지 않고, 한 번의 순회로 필요한 값을 모두 계산한다.
+// 전체/월별/카테고리별 합계와 건수, 최솟값, 최댓값, 평균은 항상 함께 계산되고,
+// 그 밖의 집계는 register 로 등록하면 같은 순회 안에서 처리된다.
+public class BankStatementSummary implements BankStatementProcessor, Consumer<BankTransaction> {
+
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private final long[] totalsByMonth = new long[Month.values().length];
+    private final Map<String, long[]> totalsByCategory = new HashMap<>();
+    private final List<BankTransactionAggregate> aggregates = new ArrayList<>();
+
+    public BankStatementSummary register(final BankTransactionAggregate aggregate) {
+        aggregates.add(aggregate);
+        return this;
+    }
+
+    @Override
+    public void accept(final BankTransaction bankTransaction) {
+        final long amountInCents = bankTransaction.getAmountInCents();
+        addRow(bankTransaction.getDate().getMonthValue(), amountInCents);
+        totalsByCategory.computeIfAbsent(bankTransaction.getDescription(), description -> new long[1])[0] += amountInCents;
+        if (!aggregates.isEmpty()) {
+            acceptAggregates((int) bankTransaction.getDate().toEpochDay(), amountInCents, bankTransaction.getDescription());
+        }
+    }
+
+    // 컬럼 기반 프로세서는 카테고리 합계를 코드별로 따로 모은 뒤 addCategoryTotal 로 한 번에 넘긴다.
+    void addRow(final int month, final long amountInCents) {
+        count++;
+        total += amountInCents;
+        min = Math.min(min, amountInCents);
+        max = Math.max(max, amountInCents);
+        totalsByMonth[month - 1] += amountInCents;
+    }
+
+    void addCategoryTotal(final String category, final long amountInCents) {
+        totalsByCategory.computeIfAbsent(category, description -> new long[1])[0] += amountInCents;
+    }
+
+    // 다른 요약의 합계를 더한다. register 한 집계는 합칠 수 없으므로 대상에서 빠진다.
+    void mergeTotals(final BankStatementSummary other) {
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int month = 0; month < totalsByMonth.length; month++) {
+            totalsByMonth[month] += other.totalsByMonth[month];
+        }
+        other.totalsByCategory.forEach((category, amount) -> addCategoryTotal(category, amount[0]));
+    }
+
+    boolean hasAggregates() {
+        return !aggregates.isEmpty();
+    }
+
+    void acceptAggregates(final int epochDay, final long amountInCents, final String description) {
+        for (final BankTransactionAggregate aggregate : aggregates) {
+            aggregate.accept(epochDay, amountInCents, description);
+        }
+    }
+
+    @Override
+    public long calculateTotalAmountInCents() {
+        return total;
+    }
+
+    @Override
+    public long calculateTotalInMonthInCents(final Month month) {
+        return totalsByMonth[month.getValue() - 1];
+    }
+
+    @Override
+    public long calculateTotalForCategoryInCents(final String category) {
+        final long[] totalForCategory = totalsByCategory.get(category);
+        return totalForCategory == null ? 0 : totalForCategory[0];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMinInCents() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMaxInCents() {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : (double) total / count / 100;
+    }
+}
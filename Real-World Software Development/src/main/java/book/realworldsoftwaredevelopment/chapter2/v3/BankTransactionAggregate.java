@@ -0,0 +1,7 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+// BankStatementSummary 에 등록하는 사용자 정의 집계. 거래 한 건마다 한 번씩 호출된다.
+@FunctionalInterface
+public interface BankTransactionAggregate {
+    void accept(int epochDay, long amountInCents, String description);
+}
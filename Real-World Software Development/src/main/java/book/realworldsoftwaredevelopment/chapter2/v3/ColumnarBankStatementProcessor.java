@@ -0,0 +1,74 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.Month;
+
+// TransactionTable 의 기본형 배열을 그대로 순회하는 BankStatementProcessor
+@RequiredArgsConstructor
+public class ColumnarBankStatementProcessor implements BankStatementProcessor {
+
+    private final TransactionTable transactionTable;
+
+    @Override
+    public long calculateTotalAmountInCents() {
+        final long[] amountsInCents = transactionTable.amountsInCents();
+        long total = 0;
+        for (final long amountInCents : amountsInCents) {
+            total += amountInCents;
+        }
+        return total;
+    }
+
+    @Override
+    public long calculateTotalInMonthInCents(final Month month) {
+        final byte[] months = transactionTable.months();
+        final long[] amountsInCents = transactionTable.amountsInCents();
+        final int monthValue = month.getValue();
+        long total = 0;
+        for (int row = 0; row < months.length; row++) {
+            if (months[row] == monthValue) {
+                total += amountsInCents[row];
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long calculateTotalForCategoryInCents(final String category) {
+        // 문자열 비교 대신 사전 코드 하나만 찾아서 int 비교로 집계한다.
+        final int code = transactionTable.codeOf(category);
+        if (code < 0) {
+            return 0;
+        }
+        final int[] descriptionCodes = transactionTable.descriptionCodes();
+        final long[] amountsInCents = transactionTable.amountsInCents();
+        long total = 0;
+        for (int row = 0; row < descriptionCodes.length; row++) {
+            if (descriptionCodes[row] == code) {
+                total += amountsInCents[row];
+            }
+        }
+        return total;
+    }
+
+    public void summarize(final BankStatementSummary summary) {
+        final byte[] months = transactionTable.months();
+        final long[] amountsInCents = transactionTable.amountsInCents();
+        final int[] descriptionCodes = transactionTable.descriptionCodes();
+        final boolean hasAggregates = summary.hasAggregates();
+        // 카테고리별 합계는 코드를 인덱스로 하는 배열에 모았다가 마지막에 한 번만 넘긴다.
+        final long[] totalsByCode = new long[transactionTable.dictionarySize()];
+        for (int row = 0; row < amountsInCents.length; row++) {
+            summary.addRow(months[row], amountsInCents[row]);
+            totalsByCode[descriptionCodes[row]] += amountsInCents[row];
+            if (hasAggregates) {
+                summary.acceptAggregates(transactionTable.epochDay(row), amountsInCents[row],
+                        transactionTable.description(descriptionCodes[row]));
+            }
+        }
+        for (int code = 0; code < totalsByCode.length; code++) {
+            summary.addCategoryTotal(transactionTable.description(code), totalsByCode[code]);
+        }
+    }
+}
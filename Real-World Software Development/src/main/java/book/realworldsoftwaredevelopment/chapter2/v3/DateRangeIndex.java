@@ -0,0 +1,113 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+// 거래 내역을 날짜순으로 정렬한 epochDay 컬럼과 금액 누적합을 만들어 둔다.
+// 날짜 구간은 이진 탐색으로 찾으므로 구간 합계와 건수는 O(log n) 이다.
+// 월 조건도 연도까지 포함한 YearMonth 로 구간을 잡으므로 여러 해의 같은 달이 섞이지 않는다.
+// 인덱스를 만든 뒤 원본 리스트가 바뀌면 안 된다.
+public class DateRangeIndex {
+
+    private final int[] epochDays;
+    // 정렬된 위치 i 의 원래 행 번호
+    private final int[] rows;
+    // prefixSums[i] 는 정렬된 앞쪽 i 건의 금액 합계
+    private final long[] prefixSums;
+
+    private DateRangeIndex(final int[] epochDays, final int[] rows, final long[] prefixSums) {
+        this.epochDays = epochDays;
+        this.rows = rows;
+        this.prefixSums = prefixSums;
+    }
+
+    public static DateRangeIndex build(final List<BankTransaction> bankTransactions) {
+        final int size = bankTransactions.size();
+        // epochDay 를 상위 32비트, 행 번호를 하위 32비트에 넣고 정렬하면 같은 날짜는 원래 순서를 유지한다.
+        final long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = bankTransactions.get(row).getDate().toEpochDay() << 32 | row;
+        }
+        Arrays.sort(keys);
+
+        final int[] epochDays = new int[size];
+        final int[] rows = new int[size];
+        final long[] prefixSums = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = (int) (keys[i] >> 32);
+            rows[i] = (int) keys[i];
+            prefixSums[i + 1] = prefixSums[i] + bankTransactions.get(rows[i]).getAmountInCents();
+        }
+        return new DateRangeIndex(epochDays, rows, prefixSums);
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+
+    // from, to 모두 포함한다.
+    public long totalBetweenInCents(final LocalDate from, final LocalDate to) {
+        final int start = lowerBound(from);
+        final int end = upperBound(to);
+        return start < end ? prefixSums[end] - prefixSums[start] : 0;
+    }
+
+    public int countBetween(final LocalDate from, final LocalDate to) {
+        return Math.max(0, upperBound(to) - lowerBound(from));
+    }
+
+    // 날짜순으로 정렬된 원래 행 번호
+    public int[] rowsBetween(final LocalDate from, final LocalDate to) {
+        final int start = lowerBound(from);
+        final int end = upperBound(to);
+        return start < end ? Arrays.copyOfRange(rows, start, end) : new int[0];
+    }
+
+    public long totalInMonthInCents(final YearMonth yearMonth) {
+        return totalBetweenInCents(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+
+    public int[] rowsInMonth(final YearMonth yearMonth) {
+        return rowsBetween(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+
+    public long estimatedSizeInBytes() {
+        return (long) epochDays.length * (Integer.BYTES + Integer.BYTES) + (long) prefixSums.length * Long.BYTES;
+    }
+
+    // from 이상인 첫 위치
+    private int lowerBound(final LocalDate from) {
+        final long epochDay = from.toEpochDay();
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (epochDays[middle] < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // to 보다 큰 첫 위치
+    private int upperBound(final LocalDate to) {
+        final long epochDay = to.toEpochDay();
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (epochDays[middle] <= epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,71 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.time.Month;
+
+// 거래 내역을 계속 덧붙이면서 전체/월별/카테고리별 합계를 유지한다.
+// 새 배치가 들어와도 이전 거래를 다시 읽지 않고, 조회는 저장된 합계를 그대로 돌려준다(O(1)).
+// 파일을 받는 스레드와 조회하는 스레드가 다를 수 있으므로 모든 메서드를 동기화한다.
+public class IncrementalBankStatementProcessor implements BankStatementProcessor {
+
+    private final BankStatementSummary summary = new BankStatementSummary();
+
+    public synchronized IncrementalBankStatementProcessor append(final BankTransaction bankTransaction) {
+        summary.accept(bankTransaction);
+        return this;
+    }
+
+    public synchronized IncrementalBankStatementProcessor appendAll(final Iterable<BankTransaction> bankTransactions) {
+        for (final BankTransaction bankTransaction : bankTransactions) {
+            summary.accept(bankTransaction);
+        }
+        return this;
+    }
+
+    // 따로 모은 배치(예: 다른 스레드가 읽은 파일)를 한 번에 합친다.
+    public IncrementalBankStatementProcessor merge(final IncrementalBankStatementProcessor other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge a processor into itself");
+        }
+        final BankStatementSummary otherSummary = new BankStatementSummary();
+        synchronized (other) {
+            otherSummary.mergeTotals(other.summary);
+        }
+        synchronized (this) {
+            summary.mergeTotals(otherSummary);
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized long calculateTotalAmountInCents() {
+        return summary.calculateTotalAmountInCents();
+    }
+
+    @Override
+    public synchronized long calculateTotalInMonthInCents(final Month month) {
+        return summary.calculateTotalInMonthInCents(month);
+    }
+
+    @Override
+    public synchronized long calculateTotalForCategoryInCents(final String category) {
+        return summary.calculateTotalForCategoryInCents(category);
+    }
+
+    public synchronized long getCount() {
+        return summary.getCount();
+    }
+
+    public synchronized long getMinInCents() {
+        return summary.getMinInCents();
+    }
+
+    public synchronized long getMaxInCents() {
+        return summary.getMaxInCents();
+    }
+
+    public synchronized double getAverage() {
+        return summary.getAverage();
+    }
+}
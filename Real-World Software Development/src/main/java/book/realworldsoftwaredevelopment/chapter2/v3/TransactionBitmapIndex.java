@@ -0,0 +1,250 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import java.time.Month;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// TransactionTable 의 월, description 코드, 금액 구간마다 비트맵을 만들어 둔다.
+// 여러 조건을 함께 거는 질의는 비트맵끼리 AND/OR 해서 답하고, 금액 구간의 경계에 걸친 행만 실제 값을 비교한다.
+// 조건을 적용하는 메서드는 rows(64행씩 묶은 long 배열)의 비트를 직접 끈다.
+// 인덱스를 만든 뒤 테이블이 바뀌면 안 된다.
+public class TransactionBitmapIndex {
+
+    private static final int AMOUNT_BUCKETS = 64;
+    // 금액 구간 경계를 정할 때 볼 표본 수
+    private static final int SAMPLE_SIZE = 1 << 16;
+
+    private final TransactionTable transactionTable;
+    private final Bitmap[] bitmapsByMonth;
+    private final Bitmap[] bitmapsByDescriptionCode;
+    // bucket i 는 [amountBounds[i], amountBounds[i + 1]) 구간. 마지막 구간은 위쪽이 열려 있다.
+    private final long[] amountBounds;
+    private final Bitmap[] bitmapsByAmountBucket;
+    private final long buildTimeNanos;
+
+    private TransactionBitmapIndex(final TransactionTable transactionTable, final Bitmap[] bitmapsByMonth,
+                                   final Bitmap[] bitmapsByDescriptionCode, final long[] amountBounds,
+                                   final Bitmap[] bitmapsByAmountBucket, final long buildTimeNanos) {
+        this.transactionTable = transactionTable;
+        this.bitmapsByMonth = bitmapsByMonth;
+        this.bitmapsByDescriptionCode = bitmapsByDescriptionCode;
+        this.amountBounds = amountBounds;
+        this.bitmapsByAmountBucket = bitmapsByAmountBucket;
+        this.buildTimeNanos = buildTimeNanos;
+    }
+
+    public static TransactionBitmapIndex build(final TransactionTable transactionTable) {
+        final long start = System.nanoTime();
+        final int size = transactionTable.size();
+
+        final int[] monthKeys = new int[size];
+        final int[] descriptionKeys = transactionTable.descriptionCodes();
+        final int[] amountKeys = new int[size];
+        final long[] amountBounds = amountBounds(transactionTable);
+        for (int row = 0; row < size; row++) {
+            monthKeys[row] = transactionTable.month(row) - 1;
+            amountKeys[row] = bucketOf(amountBounds, transactionTable.amountInCents(row));
+        }
+
+        return new TransactionBitmapIndex(transactionTable,
+                Bitmap.partition(monthKeys, Month.values().length, size),
+                Bitmap.partition(descriptionKeys, transactionTable.dictionarySize(), size),
+                amountBounds,
+                Bitmap.partition(amountKeys, amountBounds.length, size),
+                System.nanoTime() - start);
+    }
+
+    // 전체가 후보인 rows 배열
+    public long[] allRows() {
+        final int size = transactionTable.size();
+        final long[] rows = new long[Bitmap.wordCount(size)];
+        Arrays.fill(rows, -1L);
+        if (size % Long.SIZE != 0) {
+            rows[rows.length - 1] = (1L << size) - 1;
+        }
+        return rows;
+    }
+
+    public void retainMonth(final long[] rows, final Month month) {
+        bitmapsByMonth[month.getValue() - 1].andInto(rows);
+    }
+
+    public void retainDescription(final long[] rows, final String description) {
+        final int code = transactionTable.codeOf(description);
+        if (code < 0 || code >= bitmapsByDescriptionCode.length) {
+            Arrays.fill(rows, 0L);
+            return;
+        }
+        bitmapsByDescriptionCode[code].andInto(rows);
+    }
+
+    // 양 끝을 포함한다. 구간 안에 완전히 들어가는 bucket 은 비트맵만으로 답하고,
+    // 경계에 걸친 bucket 의 행만 실제 금액을 비교한다.
+    public void retainAmountBetween(final long[] rows, final long minInCents, final long maxInCents) {
+        final long[] exact = new long[rows.length];
+        final long[] candidates = new long[rows.length];
+        for (int bucket = 0; bucket < amountBounds.length; bucket++) {
+            final long lower = amountBounds[bucket];
+            final long upper = bucket + 1 < amountBounds.length ? amountBounds[bucket + 1] - 1 : Long.MAX_VALUE;
+            if (upper < minInCents || lower > maxInCents) {
+                continue;
+            }
+            final boolean contained = lower >= minInCents && upper <= maxInCents;
+            bitmapsByAmountBucket[bucket].orInto(contained ? exact : candidates);
+        }
+        for (int word = 0; word < rows.length; word++) {
+            long remaining = rows[word] & candidates[word];
+            long kept = rows[word] & exact[word];
+            while (remaining != 0) {
+                final int bit = Long.numberOfTrailingZeros(remaining);
+                final long amountInCents = transactionTable.amountInCents((word << 6) + bit);
+                if (amountInCents >= minInCents && amountInCents <= maxInCents) {
+                    kept |= 1L << bit;
+                }
+                remaining &= remaining - 1;
+            }
+            rows[word] = kept;
+        }
+    }
+
+    public BitSet rowsInMonth(final Month month) {
+        final long[] rows = allRows();
+        retainMonth(rows, month);
+        return BitSet.valueOf(rows);
+    }
+
+    public BitSet rowsForDescription(final String description) {
+        final long[] rows = allRows();
+        retainDescription(rows, description);
+        return BitSet.valueOf(rows);
+    }
+
+    public TransactionTable getTransactionTable() {
+        return transactionTable;
+    }
+
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    public long estimatedSizeInBytes() {
+        long size = (long) amountBounds.length * Long.BYTES;
+        for (final Bitmap[] bitmaps : Arrays.asList(bitmapsByMonth, bitmapsByDescriptionCode, bitmapsByAmountBucket)) {
+            for (final Bitmap bitmap : bitmaps) {
+                size += bitmap.estimatedSizeInBytes();
+            }
+        }
+        return size;
+    }
+
+    // 표본을 정렬해서 건수가 비슷하도록 경계를 정한다. 같은 경계는 하나로 합친다.
+    private static long[] amountBounds(final TransactionTable transactionTable) {
+        final int size = transactionTable.size();
+        if (size == 0) {
+            return new long[]{Long.MIN_VALUE};
+        }
+        final int step = Math.max(1, size / SAMPLE_SIZE);
+        final long[] sample = new long[(size + step - 1) / step];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = transactionTable.amountInCents(i * step);
+        }
+        Arrays.sort(sample);
+
+        final long[] bounds = new long[AMOUNT_BUCKETS];
+        bounds[0] = Long.MIN_VALUE;
+        int count = 1;
+        for (int bucket = 1; bucket < AMOUNT_BUCKETS; bucket++) {
+            final long bound = sample[(int) ((long) bucket * sample.length / AMOUNT_BUCKETS)];
+            if (bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static int bucketOf(final long[] amountBounds, final long amountInCents) {
+        final int position = Arrays.binarySearch(amountBounds, amountInCents);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    // 행이 많으면 비트 배열로, 적으면 정렬된 행 번호 배열로 저장한다.
+    // 행 번호는 32비트이므로 전체 행의 1/32 보다 적게 켜진 비트맵은 배열이 더 작다.
+    private static final class Bitmap {
+
+        private final long[] words;
+        private final int[] rows;
+
+        private Bitmap(final long[] words, final int[] rows) {
+            this.words = words;
+            this.rows = rows;
+        }
+
+        static int wordCount(final int size) {
+            return (size + Long.SIZE - 1) / Long.SIZE;
+        }
+
+        // keys[row] 값에 따라 행을 나눠 key 마다 비트맵을 만든다.
+        static Bitmap[] partition(final int[] keys, final int keyCount, final int size) {
+            final int[] counts = new int[keyCount];
+            for (int row = 0; row < size; row++) {
+                counts[keys[row]]++;
+            }
+            final long[][] words = new long[keyCount][];
+            final int[][] rows = new int[keyCount][];
+            for (int key = 0; key < keyCount; key++) {
+                if ((long) counts[key] * Integer.SIZE < size) {
+                    rows[key] = new int[counts[key]];
+                } else {
+                    words[key] = new long[wordCount(size)];
+                }
+            }
+            final int[] filled = new int[keyCount];
+            for (int row = 0; row < size; row++) {
+                final int key = keys[row];
+                if (rows[key] != null) {
+                    rows[key][filled[key]++] = row;
+                } else {
+                    words[key][row >>> 6] |= 1L << row;
+                }
+            }
+            final Bitmap[] bitmaps = new Bitmap[keyCount];
+            for (int key = 0; key < keyCount; key++) {
+                bitmaps[key] = new Bitmap(words[key], rows[key]);
+            }
+            return bitmaps;
+        }
+
+        void andInto(final long[] target) {
+            if (words != null) {
+                for (int word = 0; word < target.length; word++) {
+                    target[word] &= words[word];
+                }
+                return;
+            }
+            int next = 0;
+            for (int word = 0; word < target.length; word++) {
+                long mask = 0;
+                while (next < rows.length && rows[next] >>> 6 == word) {
+                    mask |= 1L << rows[next++];
+                }
+                target[word] &= mask;
+            }
+        }
+
+        void orInto(final long[] target) {
+            if (words != null) {
+                for (int word = 0; word < target.length; word++) {
+                    target[word] |= words[word];
+                }
+                return;
+            }
+            for (final int row : rows) {
+                target[row >>> 6] |= 1L << row;
+            }
+        }
+
+        long estimatedSizeInBytes() {
+            return 16 + (words != null ? (long) words.length * Long.BYTES : (long) rows.length * Integer.BYTES);
+        }
+    }
+}
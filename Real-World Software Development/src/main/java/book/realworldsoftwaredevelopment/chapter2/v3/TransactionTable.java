@@ -0,0 +1,207 @@
+package book.realworldsoftwaredevelopment.chapter2.v3;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankStatementDateDecoder;
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v2.DescriptionDictionary;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collector;
+
+// 거래 내역을 객체 리스트 대신 컬럼별 기본형 배열로 보관한다.
+// 집계할 때 객체와 LocalDate 를 따라가지 않고 배열을 순서대로 읽기만 하면 된다.
+public class TransactionTable {
+
+    private final int size;
+    private final int[] epochDays;
+    // 월별 집계가 잦으므로 epochDay 에서 매번 계산하지 않도록 월(1~12)을 따로 둔다.
+    private final byte[] months;
+    private final long[] amountsInCents;
+    // description 은 사전(dictionary) 코드로 저장한다. 사전은 파서와 공유할 수 있다.
+    private final int[] descriptionCodes;
+    private final DescriptionDictionary descriptionDictionary;
+
+    private TransactionTable(final Builder builder) {
+        this.size = builder.size;
+        this.epochDays = Arrays.copyOf(builder.epochDays, size);
+        this.months = Arrays.copyOf(builder.months, size);
+        this.amountsInCents = Arrays.copyOf(builder.amountsInCents, size);
+        this.descriptionCodes = Arrays.copyOf(builder.descriptionCodes, size);
+        this.descriptionDictionary = builder.descriptionDictionary;
+    }
+
+    private TransactionTable(final int[] epochDays, final byte[] months, final long[] amountsInCents,
+                             final int[] descriptionCodes, final DescriptionDictionary descriptionDictionary) {
+        this.size = epochDays.length;
+        this.epochDays = epochDays;
+        this.months = months;
+        this.amountsInCents = amountsInCents;
+        this.descriptionCodes = descriptionCodes;
+        this.descriptionDictionary = descriptionDictionary;
+    }
+
+    // 이미 컬럼으로 읽어 둔 배열(예: 스냅숏 파일)로 만든다. 배열은 복사하지 않으므로 이후에 바꾸면 안 된다.
+    public static TransactionTable fromColumns(final int[] epochDays, final long[] amountsInCents,
+                                               final int[] descriptionCodes, final DescriptionDictionary descriptionDictionary) {
+        if (epochDays.length != amountsInCents.length || epochDays.length != descriptionCodes.length) {
+            throw new IllegalArgumentException("Columns must have the same length: "
+                    + epochDays.length + ", " + amountsInCents.length + ", " + descriptionCodes.length);
+        }
+        final byte[] months = new byte[epochDays.length];
+        for (int row = 0; row < epochDays.length; row++) {
+            if (descriptionCodes[row] < 0 || descriptionCodes[row] >= descriptionDictionary.size()) {
+                throw new IllegalArgumentException("Unknown description code " + descriptionCodes[row] + " at row " + row);
+            }
+            months[row] = (byte) BankStatementDateDecoder.monthOf(epochDays[row]);
+        }
+        return new TransactionTable(epochDays, months, amountsInCents, descriptionCodes, descriptionDictionary);
+    }
+
+    public static TransactionTable from(final List<BankTransaction> bankTransactions) {
+        return from(bankTransactions, new DescriptionDictionary());
+    }
+
+    public static TransactionTable from(final List<BankTransaction> bankTransactions,
+                                        final DescriptionDictionary descriptionDictionary) {
+        final Builder builder = new Builder(bankTransactions.size(), descriptionDictionary);
+        for (final BankTransaction bankTransaction : bankTransactions) {
+            builder.add(bankTransaction);
+        }
+        return builder.build();
+    }
+
+    // 병렬 파싱 결과를 바로 컬럼으로 모을 때 사용한다.
+    public static Collector<BankTransaction, Builder, TransactionTable> collector() {
+        return collector(new DescriptionDictionary());
+    }
+
+    public static Collector<BankTransaction, Builder, TransactionTable> collector(final DescriptionDictionary descriptionDictionary) {
+        return Collector.of(() -> new Builder(16, descriptionDictionary), Builder::add, Builder::merge, Builder::build);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int epochDay(final int row) {
+        return epochDays[row];
+    }
+
+    public int month(final int row) {
+        return months[row];
+    }
+
+    public long amountInCents(final int row) {
+        return amountsInCents[row];
+    }
+
+    public int descriptionCode(final int row) {
+        return descriptionCodes[row];
+    }
+
+    public String description(final int code) {
+        return descriptionDictionary.decode(code);
+    }
+
+    public int dictionarySize() {
+        return descriptionDictionary.size();
+    }
+
+    // 사전에 없는 description 이면 -1
+    public int codeOf(final String description) {
+        return descriptionDictionary.codeOf(description);
+    }
+
+    public DescriptionDictionary getDescriptionDictionary() {
+        return descriptionDictionary;
+    }
+
+    public BankTransaction get(final int row) {
+        return BankTransaction.ofCents(LocalDate.ofEpochDay(epochDays[row]), amountsInCents[row], description(descriptionCodes[row]));
+    }
+
+    // 컬럼 배열과 사전 문자열의 대략적인 크기
+    public long estimatedSizeInBytes() {
+        return (long) size * (Integer.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES) + descriptionDictionary.estimatedSizeInBytes();
+    }
+
+    long[] amountsInCents() {
+        return amountsInCents;
+    }
+
+    byte[] months() {
+        return months;
+    }
+
+    int[] descriptionCodes() {
+        return descriptionCodes;
+    }
+
+    public static class Builder {
+
+        private int size;
+        private int[] epochDays;
+        private byte[] months;
+        private long[] amountsInCents;
+        private int[] descriptionCodes;
+        private final DescriptionDictionary descriptionDictionary;
+
+        public Builder() {
+            this(16, new DescriptionDictionary());
+        }
+
+        public Builder(final int expectedSize, final DescriptionDictionary descriptionDictionary) {
+            this.descriptionDictionary = descriptionDictionary;
+            final int capacity = Math.max(expectedSize, 1);
+            epochDays = new int[capacity];
+            months = new byte[capacity];
+            amountsInCents = new long[capacity];
+            descriptionCodes = new int[capacity];
+        }
+
+        public Builder add(final BankTransaction bankTransaction) {
+            return add((int) bankTransaction.getDate().toEpochDay(), bankTransaction.getAmountInCents(), bankTransaction.getDescription());
+        }
+
+        public Builder add(final int epochDay, final long amountInCents, final String description) {
+            return addEncoded(epochDay, amountInCents, descriptionDictionary.encode(description));
+        }
+
+        // 이미 사전 코드로 바꾼 description 을 받는다. 바이트에서 바로 코드를 얻는 파싱 경로에서 쓴다.
+        public Builder addEncoded(final int epochDay, final long amountInCents, final int descriptionCode) {
+            if (size == epochDays.length) {
+                grow();
+            }
+            epochDays[size] = epochDay;
+            months[size] = (byte) BankStatementDateDecoder.monthOf(epochDay);
+            amountsInCents[size] = amountInCents;
+            descriptionCodes[size] = descriptionCode;
+            size++;
+            return this;
+        }
+
+        public Builder merge(final Builder other) {
+            final boolean sameDictionary = other.descriptionDictionary == descriptionDictionary;
+            for (int row = 0; row < other.size; row++) {
+                final int code = sameDictionary
+                        ? other.descriptionCodes[row]
+                        : descriptionDictionary.encode(other.descriptionDictionary.decode(other.descriptionCodes[row]));
+                addEncoded(other.epochDays[row], other.amountsInCents[row], code);
+            }
+            return this;
+        }
+
+        public TransactionTable build() {
+            return new TransactionTable(this);
+        }
+
+        private void grow() {
+            final int capacity = epochDays.length * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            months = Arrays.copyOf(months, capacity);
+            amountsInCents = Arrays.copyOf(amountsInCents, capacity);
+            descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+        }
+    }
+}
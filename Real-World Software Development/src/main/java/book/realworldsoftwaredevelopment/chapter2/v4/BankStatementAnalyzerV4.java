@@ -1,7 +1,12 @@
 package book.realworldsoftwaredevelopment.chapter2.v4;
 
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v3.BankStatementProcessor;
 import book.realworldsoftwaredevelopment.chapter2.v3.BankStatementProcessorV3;
+import book.realworldsoftwaredevelopment.chapter2.v3.BankStatementSummary;
+import book.realworldsoftwaredevelopment.chapter2.v3.ColumnarBankStatementProcessor;
+import book.realworldsoftwaredevelopment.chapter2.v3.IncrementalBankStatementProcessor;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -9,6 +14,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Month;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class BankStatementAnalyzerV4 {
 
@@ -22,10 +29,79 @@ public class BankStatementAnalyzerV4 {
         final List<BankTransaction> bankTransactions = bankStatementParser.parseLinesFrom(lines);
         final BankStatementProcessorV3 bankStatementProcessor = new BankStatementProcessorV3(bankTransactions);
 
+        // 집계마다 전체 거래를 다시 순회하지 않도록 한 번만 순회해서 모든 합계를 구한다.
+        final BankStatementSummary summary = new BankStatementSummary();
+        bankStatementProcessor.summarize(summary);
+
+        collectSummary(summary);
+    }
+
+    // 힙보다 큰 파일 - 한 줄씩 읽으면서 합계를 누적하므로 거래 내역 전체를 메모리에 올리지 않는다.
+    public void analyzeStreaming(final String fileName, final BankStatementParser bankStatementParser) throws IOException {
+        final Path path = Paths.get(RESOURCES + fileName);
+        final BankStatementSummary summary = new BankStatementSummary();
+
+        try (Stream<String> lines = Files.lines(path)) {
+            bankStatementParser.parseLinesFrom(lines).forEach(summary);
+        }
+
+        collectSummary(summary);
+    }
+
+    // 수 GB 파일 - 메모리 매핑으로 읽고 줄 단위 String 없이 바로 파싱한다.
+    public void analyzeMapped(final String fileName, final BankStatementParser bankStatementParser) throws IOException {
+        final Path path = Paths.get(RESOURCES + fileName);
+        final BankStatementSummary summary = new BankStatementSummary();
+
+        new MappedBankStatementReader().read(path, bankStatementParser, summary);
+
+        collectSummary(summary);
+    }
+
+    // 같은 파일을 반복해서 분석할 때 - 처음 한 번만 파싱하고 이후에는 바이너리 스냅숏을 읽는다.
+    public void analyzeCached(final String fileName, final BankStatementParser bankStatementParser,
+                              final Path cacheDirectory) throws IOException {
+        final Path path = Paths.get(RESOURCES + fileName);
+        final TransactionTable transactionTable = new BankStatementSnapshotCache(cacheDirectory).load(path, bankStatementParser);
+
+        final BankStatementSummary summary = new BankStatementSummary();
+        new ColumnarBankStatementProcessor(transactionTable).summarize(summary);
+
+        collectSummary(summary);
+    }
+
+    // 데이터베이스 대신 거래 로그에 쌓아 둔 거래 - 시작할 때 로그를 처음부터 다시 읽어서 집계한다.
+    public void analyzeLog(final Path logDirectory) throws IOException {
+        final IncrementalBankStatementProcessor bankStatementProcessor = new IncrementalBankStatementProcessor();
+        try (BankTransactionLog bankTransactionLog = BankTransactionLog.open(logDirectory)) {
+            bankTransactionLog.replay(bankStatementProcessor::append);
+        }
+
         collectSummary(bankStatementProcessor);
     }
 
-    private static void collectSummary(BankStatementProcessorV3 bankStatementProcessor) {
+    // 여러 파일 - 디렉터리나 glob 패턴에 맞는 파일을 동시에 읽어서 하나로 합친다. 파일별 소요 시간도 출력한다.
+    public void analyzeAll(final String directoryOrGlob, final BankStatementParser bankStatementParser)
+            throws IOException, InterruptedException {
+        final List<Path> files = ConcurrentBankStatementIngester.resolve(Paths.get(RESOURCES), directoryOrGlob);
+        final ConcurrentBankStatementIngester.IngestionReport report =
+                new ConcurrentBankStatementIngester(bankStatementParser).ingest(files);
+
+        for (final ConcurrentBankStatementIngester.FileResult fileResult : report.getFileResults()) {
+            final long millis = TimeUnit.NANOSECONDS.toMillis(fileResult.getElapsedNanos());
+            if (fileResult.isFailed()) {
+                System.out.println(fileResult.getFile() + " failed after " + millis + " ms: " + fileResult.getFailure());
+            } else {
+                System.out.println(fileResult.getFile() + ": " + fileResult.getTransactionCount() + " transactions in " + millis + " ms");
+            }
+        }
+        System.out.println("Read " + files.size() + " files (" + report.getFailedFileCount() + " failed) in "
+                + TimeUnit.NANOSECONDS.toMillis(report.getElapsedNanos()) + " ms");
+
+        collectSummary(report.getBankStatementProcessor());
+    }
+
+    private static void collectSummary(BankStatementProcessor bankStatementProcessor) {
         System.out.println("The total for all transactions is " + bankStatementProcessor.calculateTotalAmount());
         System.out.println("The total for all transactions in January is " + bankStatementProcessor.caculateTotalInMonth(Month.JANUARY));
         System.out.println("The total for all transactions in February is " + bankStatementProcessor.caculateTotalInMonth(Month.FEBRUARY));
@@ -1,24 +1,66 @@
 package book.realworldsoftwaredevelopment.chapter2.v4;
 
+import book.realworldsoftwaredevelopment.chapter2.v2.BankStatementDateDecoder;
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v2.DescriptionDictionary;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 public class BankStatementCSVParserV4 implements BankStatementParser {
-    private static final DateTimeFormatter DATE_PATTERN = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
+    // null 이 아니면 반복되는 description 을 하나의 인스턴스로 공유한다.
+    private final DescriptionDictionary descriptionDictionary;
+
+    public BankStatementCSVParserV4() {
+        this(null);
+    }
+
+    public BankStatementCSVParserV4(final DescriptionDictionary descriptionDictionary) {
+        this.descriptionDictionary = descriptionDictionary;
+    }
+
+    // split(",")은 정규식 경로를 타고 String[] 과 컬럼 String 을 매번 만든다.
+    // 구분자 위치만 찾아서 필요한 값만 꺼낸다.
     @Override
     public BankTransaction parseFrom(final String line) {
-        final String[] columns = line.split(",");
+        final int end = line.length();
+        final int dateEnd = BankStatementCSVScanner.nextSeparator(line, 0, end);
+        final int amountEnd = BankStatementCSVScanner.nextSeparator(line, dateEnd + 1, end);
+        if (amountEnd >= end) {
+            throw new IllegalArgumentException("Invalid bank statement line: " + line);
+        }
+        final int descriptionEnd = BankStatementCSVScanner.nextSeparator(line, amountEnd + 1, end);
+
+        final LocalDate date = BankStatementDateDecoder.parse(line, 0, dateEnd);
+        final long amountInCents = BankStatementCSVScanner.parseCents(line, dateEnd + 1, amountEnd);
+        final String description = descriptionDictionary == null
+                ? line.substring(amountEnd + 1, descriptionEnd)
+                : descriptionDictionary.intern(line.substring(amountEnd + 1, descriptionEnd));
+
+        return BankTransaction.ofCents(date, amountInCents, description);
+    }
+
+    // 한 줄을 String 으로 디코딩하지 않고 바이트에서 바로 파싱한다.
+    @Override
+    public BankTransaction parseFrom(final ByteBuffer buffer, final int start, final int end) {
+        final int dateEnd = BankStatementCSVScanner.nextSeparator(buffer, start, end);
+        final int amountEnd = BankStatementCSVScanner.nextSeparator(buffer, dateEnd + 1, end);
+        if (amountEnd >= end) {
+            throw new IllegalArgumentException("Invalid bank statement line: " + BankStatementCSVScanner.decode(buffer, start, end));
+        }
+        final int descriptionEnd = BankStatementCSVScanner.nextSeparator(buffer, amountEnd + 1, end);
 
-        final LocalDate date = LocalDate.parse(columns[0], DATE_PATTERN);
-        final double amount = Double.parseDouble(columns[1]);
-        final String description = columns[2];
+        final LocalDate date = BankStatementDateDecoder.parse(buffer, start, dateEnd);
+        final long amountInCents = BankStatementCSVScanner.parseCents(buffer, dateEnd + 1, amountEnd);
+        // 사전에 이미 있는 description 은 바이트를 비교해서 찾으므로 String 을 만들지 않는다.
+        final String description = descriptionDictionary == null
+                ? BankStatementCSVScanner.decode(buffer, amountEnd + 1, descriptionEnd)
+                : descriptionDictionary.intern(buffer, amountEnd + 1, descriptionEnd);
 
-        return new BankTransaction(date, amount, description);
+        return BankTransaction.ofCents(date, amountInCents, description);
     }
 
     @Override
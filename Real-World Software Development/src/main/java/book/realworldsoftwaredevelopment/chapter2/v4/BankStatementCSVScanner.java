@@ -0,0 +1,136 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// split(",") 대신 인덱스로 필드 경계를 찾고, 숫자는 문자에서 바로 계산한다.
+// String 과 ByteBuffer 양쪽에서 같은 규칙으로 동작한다.
+public final class BankStatementCSVScanner {
+
+    private static final char SEPARATOR = ',';
+
+    // 센트로 바꿔도 long 범위를 넘지 않는 정수부 자릿수
+    private static final int MAX_DIGITS = 16;
+
+    private BankStatementCSVScanner() {
+    }
+
+    public static int nextSeparator(final CharSequence line, final int from, final int end) {
+        for (int i = from; i < end; i++) {
+            if (line.charAt(i) == SEPARATOR) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    public static int nextSeparator(final ByteBuffer buffer, final int from, final int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == SEPARATOR) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // "-1234.56" 같은 10진수 금액을 double 을 거치지 않고 센트 단위 long 으로 바로 읽는다.
+    // 소수점 셋째 자리에서 반올림하고, 지수 표기 같은 드문 형식은 Double.parseDouble 로 넘긴다.
+    public static long parseCents(final CharSequence line, final int start, final int end) {
+        int i = start;
+        final boolean negative = i < end && line.charAt(i) == '-';
+        if (negative || (i < end && line.charAt(i) == '+')) {
+            i++;
+        }
+
+        long cents = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        for (; i < end; i++) {
+            final char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits < 2) {
+                    cents = cents * 10 + (c - '0');
+                } else if (fractionDigits == 2) {
+                    roundUp = c >= '5';
+                }
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                digits = -1;
+                break;
+            }
+        }
+
+        if (digits <= 0 || digits - Math.max(fractionDigits, 0) > MAX_DIGITS) {
+            return BankTransaction.toCents(Double.parseDouble(line.subSequence(start, end).toString()));
+        }
+        return toCents(negative, cents, fractionDigits, roundUp);
+    }
+
+    public static long parseCents(final ByteBuffer buffer, final int start, final int end) {
+        int i = start;
+        final boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || (i < end && buffer.get(i) == '+')) {
+            i++;
+        }
+
+        long cents = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        for (; i < end; i++) {
+            final byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (fractionDigits < 2) {
+                    cents = cents * 10 + (b - '0');
+                } else if (fractionDigits == 2) {
+                    roundUp = b >= '5';
+                }
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                digits = -1;
+                break;
+            }
+        }
+
+        if (digits <= 0 || digits - Math.max(fractionDigits, 0) > MAX_DIGITS) {
+            return BankTransaction.toCents(Double.parseDouble(decode(buffer, start, end)));
+        }
+        return toCents(negative, cents, fractionDigits, roundUp);
+    }
+
+    public static String decode(final ByteBuffer buffer, final int start, final int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        final byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toCents(final boolean negative, final long value, final int fractionDigits, final boolean roundUp) {
+        long cents = value;
+        // 소수 자릿수가 2보다 적으면 자릿수를 채운다. (예: "12" -> 1200, "12.5" -> 1250)
+        for (int i = Math.max(fractionDigits, 0); i < 2; i++) {
+            cents *= 10;
+        }
+        if (roundUp) {
+            cents++;
+        }
+        return negative ? -cents : cents;
+    }
+}
@@ -2,11 +2,31 @@ package book.realworldsoftwaredevelopment.chapter2.v4;
 
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
 
+import java.io.BufferedReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BankStatementParser {
 
     BankTransaction parseFrom(String line);
 
+    // [start, end) 범위의 한 줄을 파싱한다. 기본 구현은 String 으로 디코딩해서 위임한다.
+    default BankTransaction parseFrom(final ByteBuffer buffer, final int start, final int end) {
+        final ByteBuffer line = buffer.duplicate();
+        line.limit(end).position(start);
+        return parseFrom(StandardCharsets.UTF_8.decode(line).toString());
+    }
+
     List<BankTransaction> parseLinesFrom(List<String> lines);
+
+    // 전체 파일을 List 로 올리지 않고, 한 줄씩 읽히는 대로 파싱한다.
+    default Stream<BankTransaction> parseLinesFrom(final Stream<String> lines) {
+        return lines.map(this::parseFrom);
+    }
+
+    default Stream<BankTransaction> parseLinesFrom(final BufferedReader reader) {
+        return parseLinesFrom(reader.lines());
+    }
 }
@@ -0,0 +1,125 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankStatementDateDecoder;
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 초당 처리 행 수(ops/s = rows/s)로 split 기반 파싱과 인덱스 기반 파싱을 비교한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BankStatementParserBenchmark.ROWS)
+@Fork(value = 2, jvmArgs = {"-Xms2G", "-Xmx2G"})
+public class BankStatementParserBenchmark {
+
+    static final int ROWS = 100_000;
+    private static final DateTimeFormatter DATE_PATTERN = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final String[] DESCRIPTIONS = {"Tesco", "Salary", "Royal Albert Hall", "Cinema", "Rent"};
+
+    private final BankStatementParser bankStatementParser = new BankStatementCSVParserV4();
+    private List<String> lines;
+    private ByteBuffer buffer;
+    private int[] lineStarts;
+
+    @Setup
+    public void setUp() {
+        lines = new ArrayList<>(ROWS);
+        final StringBuilder content = new StringBuilder();
+        lineStarts = new int[ROWS + 1];
+        for (int i = 0; i < ROWS; i++) {
+            final String line = String.format("%02d-%02d-2017,%d.%02d,%s",
+                    i % 28 + 1, i % 12 + 1, i % 2 == 0 ? -(i % 5_000) : i % 5_000, i % 100, DESCRIPTIONS[i % DESCRIPTIONS.length]);
+            lines.add(line);
+            lineStarts[i] = content.length();
+            content.append(line).append('\n');
+        }
+        lineStarts[ROWS] = content.length();
+        buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 기존 방식 - split + DateTimeFormatter + Double.parseDouble
+    @Benchmark
+    public double splitParse() {
+        double total = 0;
+        for (final String line : lines) {
+            final String[] columns = line.split(",");
+            final LocalDate date = LocalDate.parse(columns[0], DATE_PATTERN);
+            final double amount = Double.parseDouble(columns[1]);
+            total += new BankTransaction(date, amount, columns[2]).getAmount();
+        }
+        return total;
+    }
+
+    // 날짜만 따로 - DateTimeFormatter 와 고정 형식 디코더 비교
+    @Benchmark
+    public long formatterDate() {
+        long total = 0;
+        for (final String line : lines) {
+            total += LocalDate.parse(line.substring(0, 10), DATE_PATTERN).toEpochDay();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long decoderDate() {
+        long total = 0;
+        for (final String line : lines) {
+            total += BankStatementDateDecoder.parse(line, 0, 10).toEpochDay();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long decoderEpochDay() {
+        long total = 0;
+        for (final String line : lines) {
+            total += BankStatementDateDecoder.toEpochDay(line, 0, 10);
+        }
+        return total;
+    }
+
+    // 금액만 따로 - Double.parseDouble 과 센트 단위 직접 파싱 비교
+    @Benchmark
+    public double parseDoubleAmount() {
+        double total = 0;
+        for (final String line : lines) {
+            total += Double.parseDouble(line.substring(11, line.indexOf(',', 11)));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long parseCentsAmount() {
+        long total = 0;
+        for (final String line : lines) {
+            total += BankStatementCSVScanner.parseCents(line, 11, line.indexOf(',', 11));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double scannerParse() {
+        double total = 0;
+        for (final String line : lines) {
+            total += bankStatementParser.parseFrom(line).getAmount();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double byteBufferParse() {
+        double total = 0;
+        for (int i = 0; i < ROWS; i++) {
+            total += bankStatementParser.parseFrom(buffer, lineStarts[i], lineStarts[i + 1] - 1).getAmount();
+        }
+        return total;
+    }
+}
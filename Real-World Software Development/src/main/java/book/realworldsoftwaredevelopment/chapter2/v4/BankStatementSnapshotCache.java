@@ -0,0 +1,432 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.DescriptionDictionary;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// 처음 파싱한 결과를 컬럼 단위 바이너리 스냅숏으로 저장해 두고, 다음 실행부터는 파싱 대신 스냅숏을 매핑해서 읽는다.
+// 원본 파일의 크기, 수정 시각, CRC32C 가 모두 같을 때만 스냅숏을 쓴다. 하나라도 다르거나 스냅숏이 깨졌으면 다시 파싱한다.
+//
+// 형식(빅 엔디언):
+//   헤더   magic, version, 원본 크기, 원본 수정 시각, 원본 CRC32C, 행 수, flags
+//   섹션   날짜, 금액(센트), description 코드, description 사전 순서. 각 섹션 앞에 바이트 길이(long)가 붙는다.
+// 날짜는 flags 에 DELTA_DATES 가 있으면 이전 행과의 차이를 zigzag varint 로, 없으면 int 그대로 쓴다.
+// 거래 내역은 보통 날짜 순이라 차이가 작아서 대부분 1 바이트로 줄어든다.
+public class BankStatementSnapshotCache {
+
+    static final int MAGIC = 0x42545331; // "BTS1"
+    static final int VERSION = 1;
+    static final int DELTA_DATES = 1;
+    private static final String SUFFIX = ".snapshot";
+    private static final int BUFFER_SIZE = 1 << 20;
+    // 한 번에 매핑하는 최대 크기. 섹션이 이보다 크면 나눠서 매핑한다.
+    private static final long MAX_WINDOW_SIZE = 1 << 30;
+
+    private final Path cacheDirectory;
+    private final boolean deltaEncodeDates;
+
+    public BankStatementSnapshotCache(final Path cacheDirectory) {
+        this(cacheDirectory, true);
+    }
+
+    public BankStatementSnapshotCache(final Path cacheDirectory, final boolean deltaEncodeDates) {
+        this.cacheDirectory = cacheDirectory;
+        this.deltaEncodeDates = deltaEncodeDates;
+    }
+
+    // 스냅숏이 유효하면 스냅숏에서, 아니면 원본을 파싱해서 읽고 스냅숏을 새로 쓴다.
+    public TransactionTable load(final Path source, final BankStatementParser bankStatementParser) throws IOException {
+        final SourceKey key = SourceKey.of(source);
+        final Path snapshot = snapshotOf(source);
+
+        final TransactionTable cached = readIfValid(snapshot, key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final TransactionTable.Builder builder = new TransactionTable.Builder(1024, new DescriptionDictionary());
+        new MappedBankStatementReader().read(source, bankStatementParser, builder::add);
+        final TransactionTable table = builder.build();
+        write(snapshot, key, table);
+        return table;
+    }
+
+    // 다른 디렉터리의 같은 이름 파일이 서로의 스냅숏을 덮어쓰지 않도록 절대 경로의 해시를 붙인다.
+    // 해시가 겹쳐도 SourceKey 가 맞지 않으면 다시 파싱하므로 틀린 결과를 돌려주지는 않는다.
+    public Path snapshotOf(final Path source) {
+        final CRC32C crc = new CRC32C();
+        crc.update(source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return cacheDirectory.resolve(String.format("%s-%08x%s", source.getFileName(), crc.getValue(), SUFFIX));
+    }
+
+    // 스냅숏이 없거나, 원본과 맞지 않거나, 깨졌으면 null
+    TransactionTable readIfValid(final Path snapshot, final SourceKey key) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return read(new MappedInput(channel), key);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static TransactionTable read(final MappedInput input, final SourceKey key) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION
+                || !key.equals(new SourceKey(input.readLong(), input.readLong(), input.readLong()))) {
+            return null;
+        }
+        final int rows = input.readInt();
+        final int flags = input.readInt();
+        // 배열을 만들기 전에 행 수가 파일 크기에 맞는지 본다. 깨진 행 수로 수 GB 를 잡지 않도록.
+        // 한 행은 금액 8바이트, 코드 4바이트에 날짜가 최소 1바이트(차이) 또는 4바이트다.
+        final int minDateBytes = (flags & DELTA_DATES) != 0 ? 1 : Integer.BYTES;
+        if (rows < 0 || (long) rows * (Long.BYTES + Integer.BYTES + minDateBytes) > input.size() - input.position()) {
+            return null;
+        }
+
+        final int[] epochDays = new int[rows];
+        final long datesLength = input.readLong();
+        final long datesEnd = input.position() + datesLength;
+        if ((flags & DELTA_DATES) != 0) {
+            int previous = 0;
+            for (int row = 0; row < rows; row++) {
+                previous += zigzagDecode(input.readVarInt());
+                epochDays[row] = previous;
+            }
+        } else {
+            input.readInts(epochDays);
+        }
+        if (input.position() != datesEnd) {
+            return null;
+        }
+
+        final long[] amountsInCents = new long[rows];
+        if (input.readLong() != (long) rows * Long.BYTES) {
+            return null;
+        }
+        input.readLongs(amountsInCents);
+
+        final int[] descriptionCodes = new int[rows];
+        if (input.readLong() != (long) rows * Integer.BYTES) {
+            return null;
+        }
+        input.readInts(descriptionCodes);
+
+        final long dictionaryEnd = input.readLong() + input.position();
+        final int dictionarySize = input.readInt();
+        final DescriptionDictionary descriptionDictionary = new DescriptionDictionary();
+        for (int code = 0; code < dictionarySize; code++) {
+            final ByteBuffer bytes = ByteBuffer.wrap(input.readBytes(input.readInt()));
+            if (descriptionDictionary.encode(bytes, 0, bytes.limit()) != code) {
+                return null;
+            }
+        }
+        if (input.position() != dictionaryEnd || input.position() != input.size()) {
+            return null;
+        }
+        return TransactionTable.fromColumns(epochDays, amountsInCents, descriptionCodes, descriptionDictionary);
+    }
+
+    // 임시 파일에 다 쓴 뒤 이름을 바꾸므로, 도중에 멈춰도 반쯤 쓴 스냅숏이 남지 않는다.
+    void write(final Path snapshot, final SourceKey key, final TransactionTable table) throws IOException {
+        Files.createDirectories(cacheDirectory);
+        final Path temporary = Files.createTempFile(cacheDirectory, snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final BufferedOutput output = new BufferedOutput(channel);
+                writeTo(output, key, table);
+                output.flush();
+                channel.force(false);
+            }
+            try {
+                Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void writeTo(final BufferedOutput output, final SourceKey key, final TransactionTable table) throws IOException {
+        final int rows = table.size();
+        output.putInt(MAGIC);
+        output.putInt(VERSION);
+        output.putLong(key.size);
+        output.putLong(key.lastModifiedMillis);
+        output.putLong(key.checksum);
+        output.putInt(rows);
+        output.putInt(deltaEncodeDates ? DELTA_DATES : 0);
+
+        if (deltaEncodeDates) {
+            long length = 0;
+            int previous = 0;
+            for (int row = 0; row < rows; row++) {
+                length += varIntLength(zigzagEncode(table.epochDay(row) - previous));
+                previous = table.epochDay(row);
+            }
+            output.putLong(length);
+            previous = 0;
+            for (int row = 0; row < rows; row++) {
+                output.putVarInt(zigzagEncode(table.epochDay(row) - previous));
+                previous = table.epochDay(row);
+            }
+        } else {
+            output.putLong((long) rows * Integer.BYTES);
+            for (int row = 0; row < rows; row++) {
+                output.putInt(table.epochDay(row));
+            }
+        }
+
+        output.putLong((long) rows * Long.BYTES);
+        for (int row = 0; row < rows; row++) {
+            output.putLong(table.amountInCents(row));
+        }
+
+        output.putLong((long) rows * Integer.BYTES);
+        for (int row = 0; row < rows; row++) {
+            output.putInt(table.descriptionCode(row));
+        }
+
+        final int dictionarySize = table.dictionarySize();
+        final byte[][] descriptions = new byte[dictionarySize][];
+        long dictionaryLength = Integer.BYTES;
+        for (int code = 0; code < dictionarySize; code++) {
+            descriptions[code] = table.description(code).getBytes(StandardCharsets.UTF_8);
+            dictionaryLength += Integer.BYTES + descriptions[code].length;
+        }
+        output.putLong(dictionaryLength);
+        output.putInt(dictionarySize);
+        for (final byte[] description : descriptions) {
+            output.putInt(description.length);
+            output.putBytes(description);
+        }
+    }
+
+    private static int zigzagEncode(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int zigzagDecode(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varIntLength(final int value) {
+        int length = 1;
+        int remaining = value >>> 7;
+        while (remaining != 0) {
+            length++;
+            remaining >>>= 7;
+        }
+        return length;
+    }
+
+    // 원본 파일을 알아보는 값. 내용까지 확인하려고 CRC32C 를 구한다. 매핑해서 읽으므로 파싱보다 훨씬 싸다.
+    static final class SourceKey {
+        private final long size;
+        private final long lastModifiedMillis;
+        private final long checksum;
+
+        SourceKey(final long size, final long lastModifiedMillis, final long checksum) {
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.checksum = checksum;
+        }
+
+        static SourceKey of(final Path source) throws IOException {
+            final long lastModifiedMillis = Files.getLastModifiedTime(source).toMillis();
+            final CRC32C crc = new CRC32C();
+            final long size;
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                size = channel.size();
+                for (long position = 0; position < size; position += MAX_WINDOW_SIZE) {
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW_SIZE, size - position)));
+                }
+            }
+            return new SourceKey(size, lastModifiedMillis, crc.getValue());
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SourceKey)) {
+                return false;
+            }
+            final SourceKey other = (SourceKey) o;
+            return size == other.size && lastModifiedMillis == other.lastModifiedMillis && checksum == other.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(checksum);
+        }
+    }
+
+    // 스냅숏을 MAX_WINDOW_SIZE 이하의 구간으로 나눠 매핑하면서 앞에서부터 읽는다.
+    // 배열은 구간 안에서 한 번에 복사한다.
+    private static final class MappedInput {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        private MappedInput(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            remap(0);
+        }
+
+        long size() {
+            return size;
+        }
+
+        long position() {
+            return windowStart + window.position();
+        }
+
+        int readInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        long readLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        int readVarInt() throws IOException {
+            ensure(Math.min(5, size - position()));
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                final byte b = window.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint at " + position());
+        }
+
+        void readInts(final int[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Integer.BYTES);
+                final int count = Math.min(values.length - offset, window.remaining() / Integer.BYTES);
+                window.asIntBuffer().get(values, offset, count);
+                window.position(window.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+
+        void readLongs(final long[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Long.BYTES);
+                final int count = Math.min(values.length - offset, window.remaining() / Long.BYTES);
+                window.asLongBuffer().get(values, offset, count);
+                window.position(window.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+
+        byte[] readBytes(final int length) throws IOException {
+            if (length < 0 || length > size - position()) {
+                throw new IllegalArgumentException("Invalid length: " + length);
+            }
+            final byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                ensure(1);
+                final int count = Math.min(length - offset, window.remaining());
+                window.get(bytes, offset, count);
+                offset += count;
+            }
+            return bytes;
+        }
+
+        // 현재 구간에 bytes 만큼 남아 있지 않으면 현재 위치부터 다시 매핑한다.
+        private void ensure(final long bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            if (size - position() < bytes) {
+                throw new BufferUnderflowException();
+            }
+            remap(position());
+        }
+
+        private void remap(final long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW_SIZE, size - position));
+        }
+    }
+
+    // 1MB 버퍼에 모았다가 채널에 쓴다.
+    private static final class BufferedOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private BufferedOutput(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(final int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(final long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putVarInt(final int value) throws IOException {
+            ensure(5);
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0) {
+                buffer.put((byte) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            buffer.put((byte) remaining);
+        }
+
+        void putBytes(final byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                final int count = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
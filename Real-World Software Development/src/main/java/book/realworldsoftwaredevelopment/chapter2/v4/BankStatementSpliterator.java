@@ -0,0 +1,124 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// WordCounterSpliterator 와 같은 방식 - 임의의 위치에서 자르면 한 줄이 둘로 쪼개지므로
+// 분할 지점을 다음 줄의 시작으로 옮겨서 나눈다. 범위는 파일의 바이트 오프셋 [from, to) 이다.
+public class BankStatementSpliterator implements Spliterator<BankTransaction> {
+
+    private final FileChannel channel;
+    private final BankStatementParser bankStatementParser;
+    private final long minSplitSize;
+    private long from;
+    private final long to;
+
+    // 현재 읽고 있는 매핑 영역
+    private MappedByteBuffer region;
+    private long regionStart;
+    private int regionLimit;
+    private int cursor;
+
+    public BankStatementSpliterator(final FileChannel channel, final BankStatementParser bankStatementParser,
+                                    final long minSplitSize) throws IOException {
+        this(channel, bankStatementParser, minSplitSize, 0, channel.size());
+    }
+
+    private BankStatementSpliterator(final FileChannel channel, final BankStatementParser bankStatementParser,
+                                     final long minSplitSize, final long from, final long to) {
+        this.channel = channel;
+        this.bankStatementParser = bankStatementParser;
+        this.minSplitSize = minSplitSize;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super BankTransaction> action) {
+        while (true) {
+            if (region == null || cursor >= regionLimit) {
+                if (!mapNextRegion()) {
+                    return false;
+                }
+            }
+            final int lineStart = cursor;
+            int i = cursor;
+            while (i < regionLimit && region.get(i) != '\n') {
+                i++;
+            }
+            cursor = i + 1;
+
+            int lineEnd = i;
+            if (lineEnd > lineStart && region.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                action.accept(bankStatementParser.parseFrom(region, lineStart, lineEnd));
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<BankTransaction> trySplit() {
+        final long currentSize = to - from;
+        if (region != null || currentSize < minSplitSize * 2) {
+            return null;
+        }
+        try {
+            final long splitPos = MappedBankStatementReader.nextLineStart(channel, from + currentSize / 2, to);
+            if (splitPos >= to) {
+                return null;
+            }
+            // 앞부분을 떼어서 반환해야 ORDERED 스트림의 순서가 유지된다.
+            final Spliterator<BankTransaction> spliterator =
+                    new BankStatementSpliterator(channel, bankStatementParser, minSplitSize, from, splitPos);
+            from = splitPos;
+            return spliterator;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        // 남은 바이트 수 - 줄 수는 읽어보기 전에는 알 수 없다.
+        return region == null ? to - from : to - (regionStart + cursor);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED + NONNULL + IMMUTABLE;
+    }
+
+    private boolean mapNextRegion() {
+        final long position = region == null ? from : regionStart + regionLimit;
+        if (position >= to) {
+            return false;
+        }
+        try {
+            final int size = (int) Math.min(MappedBankStatementReader.MAX_REGION_SIZE, to - position);
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            int limit = size;
+            if (position + size < to) {
+                limit = MappedBankStatementReader.lastLineEnd(mapped, size);
+                if (limit == 0) {
+                    throw new IOException("Line at offset " + position + " is longer than " + size + " bytes");
+                }
+            }
+            region = mapped;
+            regionStart = position;
+            regionLimit = limit;
+            cursor = 0;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v2.DescriptionDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// 데이터베이스 없이 거래를 파일에 덧붙여 저장한다. 한 번 쓴 레코드는 바꾸지 않는다.
+// 세그먼트 파일이 segmentSize 를 넘으면 새 파일로 넘어가고, 파일 이름은 첫 레코드의 순번이다(00000000000000000000.log).
+//
+// 레코드: 길이(int), CRC32C(int), epochDay(int), 금액 센트(long), description UTF-8 바이트
+//
+// 쓰기는 1MB 버퍼에 모아서 보내고, syncInterval 건마다 한 번씩 force 한다.
+// sync() 나 close() 가 끝난 레코드까지는 장애가 나도 남는다.
+// 열 때 모든 레코드의 CRC 를 확인하면서 순번별 위치 색인을 만든다. 마지막 세그먼트 끝의
+// 덜 쓴 레코드는 쓰다가 멈춘 것으로 보고 잘라낸다. 그 밖의 손상은 IOException 으로 알린다.
+public class BankTransactionLog implements Closeable {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    public static final int DEFAULT_SYNC_INTERVAL = 10_000;
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    // epochDay + 금액
+    private static final int FIXED_PAYLOAD_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int BUFFER_SIZE = 1 << 20;
+    // 레코드 하나가 쓰기 버퍼에 들어가야 한다.
+    private static final int MAX_DESCRIPTION_BYTES = BUFFER_SIZE - HEADER_SIZE - FIXED_PAYLOAD_SIZE;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final int syncInterval;
+    private final List<Segment> segments;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32C crc = new CRC32C();
+    // 다시 읽을 때 같은 description 은 같은 String 을 쓴다.
+    private final DescriptionDictionary descriptionDictionary = new DescriptionDictionary();
+    private FileChannel channel;
+    private long size;
+    private int unsynced;
+
+    private BankTransactionLog(final Path directory, final long segmentSize, final int syncInterval,
+                               final List<Segment> segments) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncInterval = syncInterval;
+        this.segments = segments;
+        for (final Segment segment : segments) {
+            size += segment.count;
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(directory, 0));
+        }
+        final Segment active = activeSegment();
+        this.channel = FileChannel.open(active.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(active.end);
+    }
+
+    public static BankTransactionLog open(final Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_SYNC_INTERVAL);
+    }
+
+    public static BankTransactionLog open(final Path directory, final long segmentSize, final int syncInterval) throws IOException {
+        // 레코드 위치를 int 로 색인하므로 세그먼트는 2GB 보다 작아야 한다.
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE - BUFFER_SIZE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        if (syncInterval <= 0) {
+            throw new IllegalArgumentException("Invalid sync interval: " + syncInterval);
+        }
+        Files.createDirectories(directory);
+        return new BankTransactionLog(directory, segmentSize, syncInterval, recover(directory));
+    }
+
+    // 덧붙인 레코드의 순번(0부터)을 돌려준다.
+    public synchronized long append(final BankTransaction bankTransaction) throws IOException {
+        final byte[] description = bankTransaction.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (description.length > MAX_DESCRIPTION_BYTES) {
+            throw new IllegalArgumentException("Description too long: " + description.length + " bytes");
+        }
+        final int payloadSize = FIXED_PAYLOAD_SIZE + description.length;
+        final int recordSize = HEADER_SIZE + payloadSize;
+        Segment active = activeSegment();
+        if (active.count > 0 && active.end + recordSize > segmentSize) {
+            roll();
+            active = activeSegment();
+        }
+        if (buffer.remaining() < recordSize) {
+            flushBuffer();
+        }
+
+        final int start = buffer.position();
+        buffer.putInt(payloadSize);
+        buffer.putInt(0);
+        buffer.putInt((int) bankTransaction.getDate().toEpochDay());
+        buffer.putLong(bankTransaction.getAmountInCents());
+        buffer.put(description);
+        final ByteBuffer payload = buffer.duplicate();
+        payload.position(start + HEADER_SIZE).limit(buffer.position());
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+
+        // 레코드가 버퍼에 들어갔으므로 순번과 색인을 함께 매긴다. 아래 sync 가 실패해도 쓰지 못한 바이트는
+        // 버퍼에 남아(flushBuffer 참고) 다음 flush 때 쓰이므로 색인과 순번이 어긋나지 않는다.
+        final long sequence = size++;
+        active.add((int) active.end);
+        active.end += recordSize;
+        if (++unsynced >= syncInterval) {
+            sync();
+        }
+        return sequence;
+    }
+
+    public synchronized long appendAll(final Iterable<BankTransaction> bankTransactions) throws IOException {
+        long last = -1;
+        for (final BankTransaction bankTransaction : bankTransactions) {
+            last = append(bankTransaction);
+        }
+        return last;
+    }
+
+    // 지금까지 덧붙인 레코드를 디스크에 내려 쓴다.
+    public synchronized void sync() throws IOException {
+        flushBuffer();
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    // 색인으로 위치를 찾아 레코드 하나만 읽는다.
+    public synchronized BankTransaction read(final long sequence) throws IOException {
+        if (sequence < 0 || sequence >= size) {
+            throw new IndexOutOfBoundsException("Sequence " + sequence + " out of range [0, " + size + ")");
+        }
+        flushBuffer();
+        final Segment segment = segmentOf(sequence);
+        final int position = segment.positions[(int) (sequence - segment.baseSequence)];
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(segment.reader(), header, position);
+        final ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + header.getInt(0));
+        readFully(segment.reader(), record, position);
+        return decode(record, 0, segment, position);
+    }
+
+    // 처음부터 순서대로 모든 거래를 넘긴다. 세그먼트를 매핑해서 읽는다.
+    public synchronized void replay(final Consumer<BankTransaction> consumer) throws IOException {
+        flushBuffer();
+        for (final Segment segment : segments) {
+            if (segment.end == 0) {
+                continue;
+            }
+            final MappedByteBuffer mapped = segment.reader().map(FileChannel.MapMode.READ_ONLY, 0, segment.end);
+            for (int i = 0; i < segment.count; i++) {
+                consumer.accept(decode(mapped, segment.positions[i], segment, segment.positions[i]));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+            for (final Segment segment : segments) {
+                segment.closeReader();
+            }
+        }
+    }
+
+    private BankTransaction decode(final ByteBuffer source, final int offset, final Segment segment, final long position) throws IOException {
+        final int payloadSize = source.getInt(offset);
+        final int payloadStart = offset + HEADER_SIZE;
+        final ByteBuffer payload = source.duplicate();
+        payload.limit(payloadStart + payloadSize).position(payloadStart);
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != source.getInt(offset + Integer.BYTES)) {
+            throw new IOException("Checksum mismatch in " + segment.path + " at " + position);
+        }
+        final LocalDate date = LocalDate.ofEpochDay(source.getInt(payloadStart));
+        final long amountInCents = source.getLong(payloadStart + Integer.BYTES);
+        final String description = descriptionDictionary.intern(source, payloadStart + FIXED_PAYLOAD_SIZE, payloadStart + payloadSize);
+        return BankTransaction.ofCents(date, amountInCents, description);
+    }
+
+    // 새 파일을 연 다음에 상태를 바꾼다. 도중에 실패하면 지금 세그먼트에 그대로 이어서 쓴다.
+    private void roll() throws IOException {
+        sync();
+        final Segment segment = Segment.create(directory, size);
+        final FileChannel next = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        final FileChannel previous = channel;
+        channel = next;
+        segments.add(segment);
+        previous.close();
+        forceDirectory(directory);
+    }
+
+    // 쓰다가 실패해도 아직 보내지 못한 바이트는 compact 로 버퍼 앞에 남기고 쓰기 모드로 되돌린다.
+    // 그래야 다음 flush 가 남은 바이트부터 이어서 쓰고, 그 사이 append 도 그 뒤에 붙는다.
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private Segment activeSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private Segment segmentOf(final long sequence) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).baseSequence <= sequence) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    // 세그먼트를 순서대로 훑으면서 CRC 를 확인하고 색인을 만든다.
+    private static List<Segment> recover(final Path directory) throws IOException {
+        final List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        // 이름이 0 으로 채운 순번이므로 이름 순서가 곧 순번 순서다.
+        paths.sort(null);
+
+        final List<Segment> segments = new ArrayList<>();
+        final CRC32C crc = new CRC32C();
+        long expectedBase = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            final Path path = paths.get(i);
+            final Segment segment = new Segment(path, baseSequenceOf(path));
+            if (segment.baseSequence != expectedBase) {
+                throw new IOException("Missing records before " + path + ": expected sequence " + expectedBase);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final long fileSize = channel.size();
+                if (fileSize > Integer.MAX_VALUE) {
+                    throw new IOException("Segment too large: " + path);
+                }
+                final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                final int validEnd = scan(mapped, (int) fileSize, segment, crc);
+                if (validEnd < fileSize) {
+                    if (i < paths.size() - 1) {
+                        throw new IOException("Corrupt record in " + path + " at " + validEnd);
+                    }
+                    // 마지막 세그먼트의 끝은 쓰다가 멈춘 레코드다.
+                    channel.truncate(validEnd);
+                    channel.force(true);
+                }
+            }
+            segments.add(segment);
+            expectedBase += segment.count;
+        }
+        return segments;
+    }
+
+    // 온전한 레코드가 끝나는 위치
+    private static int scan(final ByteBuffer mapped, final int fileSize, final Segment segment, final CRC32C crc) {
+        int position = 0;
+        while (fileSize - position >= HEADER_SIZE) {
+            final int payloadSize = mapped.getInt(position);
+            if (payloadSize < FIXED_PAYLOAD_SIZE || payloadSize > fileSize - position - HEADER_SIZE) {
+                break;
+            }
+            final ByteBuffer payload = mapped.duplicate();
+            payload.limit(position + HEADER_SIZE + payloadSize).position(position + HEADER_SIZE);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != mapped.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            segment.add(position);
+            position += HEADER_SIZE + payloadSize;
+        }
+        segment.end = position;
+        return position;
+    }
+
+    private static long baseSequenceOf(final Path path) throws IOException {
+        final String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected segment file: " + path, e);
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer target, final long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new IOException("Unexpected end of segment at " + position);
+            }
+        }
+    }
+
+    // 새 세그먼트 파일이 디렉터리 항목까지 디스크에 남도록 한다. 지원하지 않는 플랫폼에서는 건너뛴다.
+    private static void forceDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 디렉터리를 열 수 없는 플랫폼(Windows 등)
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long baseSequence;
+        // 레코드별 파일 안 위치
+        private int[] positions = new int[1024];
+        private int count;
+        private long end;
+        private FileChannel reader;
+
+        private Segment(final Path path, final long baseSequence) {
+            this.path = path;
+            this.baseSequence = baseSequence;
+        }
+
+        private static Segment create(final Path directory, final long baseSequence) {
+            return new Segment(directory.resolve(String.format("%020d%s", baseSequence, SUFFIX)), baseSequence);
+        }
+
+        private void add(final int position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        private FileChannel reader() throws IOException {
+            if (reader == null) {
+                reader = FileChannel.open(path, StandardOpenOption.READ);
+            }
+            return reader;
+        }
+
+        private void closeReader() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v3.IncrementalBankStatementProcessor;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 여러 거래 내역 파일을 동시에 읽어서 하나의 IncrementalBankStatementProcessor 로 합친다.
+// 파일마다 따로 집계한 뒤 끝난 순서대로 merge 하므로 파일 사이에 잠금 경합이 없고,
+// 읽다가 실패한 파일은 합계에 반쯤 들어가지 않고 실패로만 남는다.
+// 가상 스레드를 쓸 수 있는 JDK(21 이상)에서는 가상 스레드로, 아니면 고정 크기 스레드 풀로 돌린다.
+// 어느 쪽이든 한 번에 읽는 파일 수는 maxConcurrentFiles 를 넘지 않는다. 파서는 여러 스레드가 함께 쓴다.
+public class ConcurrentBankStatementIngester {
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final BankStatementParser bankStatementParser;
+    private final int maxConcurrentFiles;
+
+    public ConcurrentBankStatementIngester(final BankStatementParser bankStatementParser) {
+        this(bankStatementParser, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentBankStatementIngester(final BankStatementParser bankStatementParser, final int maxConcurrentFiles) {
+        if (maxConcurrentFiles <= 0) {
+            throw new IllegalArgumentException("Invalid number of concurrent files: " + maxConcurrentFiles);
+        }
+        this.bankStatementParser = bankStatementParser;
+        this.maxConcurrentFiles = maxConcurrentFiles;
+    }
+
+    public static boolean isGlob(final String pattern) {
+        return pattern.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0);
+    }
+
+    // 디렉터리면 그 안의 모든 파일, 아니면 glob 패턴("statements/2017-*.csv", "accounts/**/*.csv")에 맞는 파일.
+    // 상대 경로는 baseDirectory 기준이다. 이름 순으로 돌려준다.
+    public static List<Path> resolve(final Path baseDirectory, final String directoryOrGlob) throws IOException {
+        if (!isGlob(directoryOrGlob)) {
+            final Path directory = baseDirectory.resolve(directoryOrGlob);
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        }
+        // glob 문자가 처음 나오기 전까지의 디렉터리부터 훑는다.
+        final int firstGlob = firstGlobIndex(directoryOrGlob);
+        final int lastSeparator = Math.max(directoryOrGlob.lastIndexOf('/', firstGlob), directoryOrGlob.lastIndexOf('\\', firstGlob));
+        final Path root = baseDirectory.resolve(lastSeparator < 0 ? "" : directoryOrGlob.substring(0, lastSeparator + 1));
+        final String relativePattern = directoryOrGlob.substring(lastSeparator + 1);
+        final PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + relativePattern);
+        final int maxDepth = relativePattern.contains("**")
+                ? Integer.MAX_VALUE
+                : (int) relativePattern.chars().filter(c -> c == '/').count() + 1;
+        try (Stream<Path> files = Files.walk(root, maxDepth)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(root.relativize(path)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public IngestionReport ingest(final List<Path> files) throws InterruptedException {
+        final long start = System.nanoTime();
+        final IncrementalBankStatementProcessor total = new IncrementalBankStatementProcessor();
+        final Semaphore permits = new Semaphore(maxConcurrentFiles);
+        final ExecutorService executor = newExecutor(maxConcurrentFiles);
+        final List<Future<FileResult>> futures = new ArrayList<>(files.size());
+        try {
+            for (final Path file : files) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return ingest(file, total);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            final List<FileResult> fileResults = new ArrayList<>(files.size());
+            for (final Future<FileResult> future : futures) {
+                fileResults.add(resultOf(future));
+            }
+            return new IngestionReport(total, fileResults, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FileResult ingest(final Path file, final IncrementalBankStatementProcessor total) {
+        final long start = System.nanoTime();
+        final IncrementalBankStatementProcessor processor = new IncrementalBankStatementProcessor();
+        try {
+            new MappedBankStatementReader().read(file, bankStatementParser, processor::append);
+        } catch (IOException | RuntimeException e) {
+            return new FileResult(file, 0, System.nanoTime() - start, e);
+        }
+        total.merge(processor);
+        return new FileResult(file, processor.getCount(), System.nanoTime() - start, null);
+    }
+
+    private static FileResult resultOf(final Future<FileResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // ingest(file, total) 는 읽기 실패를 결과로 돌려주므로 여기까지 오는 것은 Error 나 인터럽트뿐이다.
+            throw new IllegalStateException("Failed to ingest bank statement", e.getCause());
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() 는 JDK 21 에 생겼다. 11 로 컴파일하므로 리플렉션으로 찾는다.
+    static ExecutorService newExecutor(final int threads) {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    private static int firstGlobIndex(final String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static class FileResult {
+        private final Path file;
+        private final long transactionCount;
+        private final long elapsedNanos;
+        // 성공했으면 null
+        private final Exception failure;
+
+        private FileResult(final Path file, final long transactionCount, final long elapsedNanos, final Exception failure) {
+            this.file = file;
+            this.transactionCount = transactionCount;
+            this.elapsedNanos = elapsedNanos;
+            this.failure = failure;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public long getTransactionCount() {
+            return transactionCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public Exception getFailure() {
+            return failure;
+        }
+
+        public boolean isFailed() {
+            return failure != null;
+        }
+    }
+
+    public static class IngestionReport {
+        private final IncrementalBankStatementProcessor bankStatementProcessor;
+        // 입력 파일 순서
+        private final List<FileResult> fileResults;
+        private final long elapsedNanos;
+
+        private IngestionReport(final IncrementalBankStatementProcessor bankStatementProcessor,
+                                final List<FileResult> fileResults, final long elapsedNanos) {
+            this.bankStatementProcessor = bankStatementProcessor;
+            this.fileResults = List.copyOf(fileResults);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // 성공한 파일만 합친 결과
+        public IncrementalBankStatementProcessor getBankStatementProcessor() {
+            return bankStatementProcessor;
+        }
+
+        public List<FileResult> getFileResults() {
+            return fileResults;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getFailedFileCount() {
+            return fileResults.stream().filter(FileResult::isFailed).count();
+        }
+    }
+}
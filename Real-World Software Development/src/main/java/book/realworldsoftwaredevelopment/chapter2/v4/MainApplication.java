@@ -1,15 +1,30 @@
 package book.realworldsoftwaredevelopment.chapter2.v4;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class MainApplication {
 
-    public static void main(String[] args) throws IOException {
+    private static final String RESOURCES = "src/main/resources/";
+    private static final String DEFAULT_CACHE_DIRECTORY = "build/bank-statement-cache";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
 
         final BankStatementAnalyzerV4 bankStatementAnalyzer = new BankStatementAnalyzerV4();
 
         final BankStatementParser bankStatementParser = new BankStatementCSVParserV4();
 
-        bankStatementAnalyzer.analyze(args[0], bankStatementParser);
+        // 디렉터리나 glob 패턴이면 그 안의 파일을 모두 동시에 읽는다.
+        if (ConcurrentBankStatementIngester.isGlob(args[0]) || Files.isDirectory(Paths.get(RESOURCES + args[0]))) {
+            bankStatementAnalyzer.analyzeAll(args[0], bankStatementParser);
+            return;
+        }
+
+        // 두 번째 인자로 스냅숏을 둘 디렉터리를 바꿀 수 있다.
+        final Path cacheDirectory = Paths.get(args.length > 1 ? args[1] : DEFAULT_CACHE_DIRECTORY);
+
+        bankStatementAnalyzer.analyzeCached(args[0], bankStatementParser, cacheDirectory);
     }
 }
@@ -0,0 +1,120 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// 파일을 메모리에 매핑하고 줄바꿈 위치만 찾아서 [start, end) 바이트 범위를 넘긴다.
+// 줄 단위 String 을 만들지 않으므로 복사와 UTF-16 디코딩 비용이 없다.
+public class MappedBankStatementReader {
+
+    // 한 번에 매핑할 수 있는 최대 크기는 ByteBuffer 인덱스 범위(2GB)로 제한된다.
+    static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    private final long maxRegionSize;
+
+    public MappedBankStatementReader() {
+        this(MAX_REGION_SIZE);
+    }
+
+    public MappedBankStatementReader(final long maxRegionSize) {
+        if (maxRegionSize <= 0 || maxRegionSize > MAX_REGION_SIZE) {
+            throw new IllegalArgumentException("Invalid region size: " + maxRegionSize);
+        }
+        this.maxRegionSize = maxRegionSize;
+    }
+
+    @FunctionalInterface
+    public interface LineHandler {
+        void handle(ByteBuffer buffer, int start, int end);
+    }
+
+    public void read(final Path path, final BankStatementParser bankStatementParser,
+                     final Consumer<BankTransaction> consumer) throws IOException {
+        read(path, (buffer, start, end) -> consumer.accept(bankStatementParser.parseFrom(buffer, start, end)));
+    }
+
+    public void read(final Path path, final LineHandler lineHandler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel, 0, channel.size(), lineHandler);
+        }
+    }
+
+    // [from, to) 범위를 읽는다. from 은 줄의 시작이어야 한다.
+    // 2GB 를 넘는 범위는 여러 영역으로 나눠 매핑하되, 항상 줄 경계에서 자른다.
+    public void read(final FileChannel channel, final long from, final long to, final LineHandler lineHandler) throws IOException {
+        long position = from;
+        while (position < to) {
+            final int size = (int) Math.min(maxRegionSize, to - position);
+            final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+
+            int limit = size;
+            if (position + size < to) {
+                limit = lastLineEnd(region, size);
+                if (limit == 0) {
+                    throw new IOException("Line at offset " + position + " is longer than " + maxRegionSize + " bytes");
+                }
+            }
+            forEachLine(region, limit, lineHandler);
+            position += limit;
+        }
+    }
+
+    // position 이후 첫 줄의 시작 위치. 병렬 분할 시 분할 지점을 다음 줄로 옮기는 데 쓴다.
+    public static long nextLineStart(final FileChannel channel, final long position, final long to) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long offset = position;
+        while (offset < to) {
+            buffer.clear();
+            final int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read && offset + i < to; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return to;
+    }
+
+    static int lastLineEnd(final ByteBuffer region, final int size) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void forEachLine(final ByteBuffer region, final int limit, final LineHandler lineHandler) {
+        int lineStart = 0;
+        // limit 이 Integer.MAX_VALUE 일 수 있으므로 i <= limit 로 돌면 넘친다.
+        for (int i = 0; i < limit; i++) {
+            if (region.get(i) == '\n') {
+                handleLine(region, lineStart, i, lineHandler);
+                lineStart = i + 1;
+            }
+        }
+        // 줄바꿈 없이 끝나는 마지막 줄
+        handleLine(region, lineStart, limit, lineHandler);
+    }
+
+    private static void handleLine(final ByteBuffer region, final int lineStart, final int end, final LineHandler lineHandler) {
+        int lineEnd = end;
+        if (lineEnd > lineStart && region.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        if (lineEnd > lineStart) {
+            lineHandler.handle(region, lineStart, lineEnd);
+        }
+    }
+}
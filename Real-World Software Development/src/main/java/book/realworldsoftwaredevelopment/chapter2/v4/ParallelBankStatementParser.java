@@ -0,0 +1,71 @@
+package book.realworldsoftwaredevelopment.chapter2.v4;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// 파일을 줄 경계에 맞춘 바이트 구간으로 나누고, 각 구간을 ForkJoinPool 에서 병렬로 파싱한다.
+public class ParallelBankStatementParser {
+
+    // 이보다 작은 구간은 더 나누지 않는다. 너무 잘게 나누면 분할 비용이 파싱 비용보다 커진다.
+    private static final long DEFAULT_MIN_SPLIT_SIZE = 1024 * 1024;
+
+    private final BankStatementParser bankStatementParser;
+    private final ForkJoinPool forkJoinPool;
+    private final long minSplitSize;
+
+    public ParallelBankStatementParser(final BankStatementParser bankStatementParser) {
+        this(bankStatementParser, ForkJoinPool.commonPool(), DEFAULT_MIN_SPLIT_SIZE);
+    }
+
+    public ParallelBankStatementParser(final BankStatementParser bankStatementParser,
+                                       final ForkJoinPool forkJoinPool, final long minSplitSize) {
+        this.bankStatementParser = bankStatementParser;
+        this.forkJoinPool = forkJoinPool;
+        this.minSplitSize = minSplitSize;
+    }
+
+    // 구간별 결과를 원래 파일 순서대로 이어 붙인다.
+    public List<BankTransaction> parse(final Path path) throws IOException {
+        return parse(path, Collectors.toList());
+    }
+
+    // 순서가 상관없으면 결과를 받는 대로 넘긴다. consumer 는 여러 스레드에서 동시에 호출된다.
+    public void parseUnordered(final Path path, final Consumer<BankTransaction> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final Stream<BankTransaction> stream = stream(channel).unordered();
+            forkJoinPool.submit(() -> stream.forEach(consumer)).join();
+        }
+    }
+
+    // UNORDERED 특성을 가진 Collector 를 넘기면 구간 결과를 순서 없이 합친다.
+    public <R> R parse(final Path path, final Collector<BankTransaction, ?, R> collector) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final Stream<BankTransaction> stream = collector.characteristics().contains(Collector.Characteristics.UNORDERED)
+                    ? stream(channel).unordered()
+                    : stream(channel);
+            // 병렬 스트림의 최종 연산을 풀 안에서 호출하면 그 풀의 스레드로 실행된다.
+            return forkJoinPool.submit(() -> stream.collect(collector)).join();
+        }
+    }
+
+    public List<BankTransaction> parseLinesFrom(final List<String> lines) {
+        return forkJoinPool.submit(() -> lines.parallelStream()
+                .map(bankStatementParser::parseFrom)
+                .collect(Collectors.toList())).join();
+    }
+
+    private Stream<BankTransaction> stream(final FileChannel channel) throws IOException {
+        return StreamSupport.stream(new BankStatementSpliterator(channel, bankStatementParser, minSplitSize), true);
+    }
+}
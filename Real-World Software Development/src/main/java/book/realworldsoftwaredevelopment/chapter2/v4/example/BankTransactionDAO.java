@@ -2,27 +2,229 @@ package book.realworldsoftwaredevelopment.chapter2.v4.example;
 
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.function.Consumer;
 
+// JDBC 로 직접 저장한다. 거래마다 엔티티를 만들어 영속성 컨텍스트에 붙잡아 두지 않으므로
+// 수백만 건을 넣어도 메모리가 늘지 않고, PreparedStatement 하나를 재사용해 batchSize 건씩 한 번에 보낸다.
 public class BankTransactionDAO {
 
-    public BankTransaction create(final LocalDate date, final double amount, final String description) {
-        // ...
-        throw new UnsupportedOperationException();
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+    // 한 번에 가져올 행 수. 결과 전체를 메모리에 올리지 않도록 커서로 조금씩 읽는다.
+    private static final int FETCH_SIZE = 1_000;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS bank_transaction ("
+            + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "transaction_date DATE NOT NULL, "
+            + "amount_in_cents BIGINT NOT NULL, "
+            + "description VARCHAR(255) NOT NULL)";
+    private static final String INSERT = "INSERT INTO bank_transaction (transaction_date, amount_in_cents, description) VALUES (?, ?, ?)";
+    private static final String SELECT_BY_ID = "SELECT transaction_date, amount_in_cents, description FROM bank_transaction WHERE id = ?";
+    private static final String SELECT_ALL = "SELECT transaction_date, amount_in_cents, description FROM bank_transaction ORDER BY id";
+    private static final String UPDATE = "UPDATE bank_transaction SET transaction_date = ?, amount_in_cents = ?, description = ? WHERE id = ?";
+    private static final String SELECT_ID_BY_VALUE = "SELECT id FROM bank_transaction "
+            + "WHERE transaction_date = ? AND amount_in_cents = ? AND description = ? ORDER BY id FOR UPDATE";
+    private static final String DELETE = "DELETE FROM bank_transaction WHERE id = ?";
+
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    public BankTransactionDAO(final DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public BankTransactionDAO(final DataSource dataSource, final int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    public void createTableIfNotExists() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to create table", e);
+        }
+    }
+
+    // read, update, delete 에 쓸 수 있도록 생성된 id 를 돌려준다.
+    public long create(final LocalDate date, final double amount, final String description) {
+        return insert(new BankTransaction(date, amount, description));
+    }
+
+    // 생성된 id 를 돌려준다.
+    public long insert(final BankTransaction bankTransaction) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            bind(statement, bankTransaction);
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new BankTransactionDataAccessException("No id generated for " + bankTransaction, null);
+                }
+                return keys.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to insert " + bankTransaction, e);
+        }
+    }
+
+    public long createAll(final Iterable<BankTransaction> bankTransactions) {
+        return createAll(bankTransactions.iterator());
     }
 
+    // 파서가 넘기는 거래를 batchSize 건씩 모아서 보낸다. 전부 들어가거나 하나도 들어가지 않는다.
+    // 넣은 건수를 돌려준다.
+    public long createAll(final Iterator<BankTransaction> bankTransactions) {
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                long count = 0;
+                int pending = 0;
+                while (bankTransactions.hasNext()) {
+                    bind(statement, bankTransactions.next());
+                    statement.addBatch();
+                    count++;
+                    if (++pending == batchSize) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to insert bank transactions", e);
+        }
+    }
+
+    // 없으면 null
     public BankTransaction read(final long id) {
-        // ...
-        throw new UnsupportedOperationException();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? toBankTransaction(resultSet) : null;
+            }
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to read bank transaction " + id, e);
+        }
+    }
+
+    // 저장된 순서대로 한 건씩 넘긴다. 한 번에 FETCH_SIZE 행만 가져온다.
+    public void readAll(final Consumer<BankTransaction> consumer) {
+        try (Connection connection = dataSource.getConnection()) {
+            // 일부 드라이버(PostgreSQL 등)는 트랜잭션 안에서만 커서로 나눠 가져온다.
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(toBankTransaction(resultSet));
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to read bank transactions", e);
+        }
+    }
+
+    // id 의 거래를 새 값으로 바꾼다. 없으면 null
+    public BankTransaction update(final long id, final BankTransaction bankTransaction) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            bind(statement, bankTransaction);
+            statement.setLong(4, id);
+            return statement.executeUpdate() == 0 ? null : bankTransaction;
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to update bank transaction " + id, e);
+        }
     }
 
-    public BankTransaction update(final long id) {
-        // ...
-        throw new UnsupportedOperationException();
+    // 지웠으면 true
+    public boolean delete(final long id) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(DELETE)) {
+            statement.setLong(1, id);
+            return statement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to delete bank transaction " + id, e);
+        }
     }
 
+    // BankTransaction 에는 id 가 없으므로 날짜, 금액, description 이 모두 같은 거래 중 가장 먼저 저장된 한 건만 지운다.
+    // 같은 값의 거래가 여러 건일 수 있으니 id 를 알면 delete(id) 를 쓴다. 없으면 null
     public BankTransaction delete(final BankTransaction bankTransaction) {
-        // ...
-        throw new UnsupportedOperationException();
+        return deleteFirst(bankTransaction) < 0 ? null : bankTransaction;
+    }
+
+    // 지운 행의 id, 없으면 -1. 같은 값을 동시에 지우는 두 호출이 같은 id 를 고르지 않도록
+    // 한 트랜잭션 안에서 SELECT ... FOR UPDATE 로 행을 잠그고 지운다.
+    protected long deleteFirst(final BankTransaction bankTransaction) {
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(SELECT_ID_BY_VALUE);
+                 PreparedStatement delete = connection.prepareStatement(DELETE)) {
+                bind(select, bankTransaction);
+                select.setMaxRows(1);
+                long id = -1;
+                try (ResultSet resultSet = select.executeQuery()) {
+                    if (resultSet.next()) {
+                        id = resultSet.getLong(1);
+                    }
+                }
+                if (id >= 0) {
+                    delete.setLong(1, id);
+                    if (delete.executeUpdate() == 0) {
+                        id = -1;
+                    }
+                }
+                connection.commit();
+                return id;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new BankTransactionDataAccessException("Failed to delete " + bankTransaction, e);
+        }
+    }
+
+    private static void bind(final PreparedStatement statement, final BankTransaction bankTransaction) throws SQLException {
+        statement.setDate(1, Date.valueOf(bankTransaction.getDate()));
+        statement.setLong(2, bankTransaction.getAmountInCents());
+        statement.setString(3, bankTransaction.getDescription());
+    }
+
+    private static BankTransaction toBankTransaction(final ResultSet resultSet) throws SQLException {
+        return BankTransaction.ofCents(resultSet.getDate(1).toLocalDate(), resultSet.getLong(2), resultSet.getString(3));
     }
 }
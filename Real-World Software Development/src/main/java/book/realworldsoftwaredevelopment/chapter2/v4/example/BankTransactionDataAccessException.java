@@ -0,0 +1,9 @@
+package book.realworldsoftwaredevelopment.chapter2.v4.example;
+
+// 호출하는 쪽이 SQLException 을 직접 다루지 않도록 감싼다.
+public class BankTransactionDataAccessException extends RuntimeException {
+
+    public BankTransactionDataAccessException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
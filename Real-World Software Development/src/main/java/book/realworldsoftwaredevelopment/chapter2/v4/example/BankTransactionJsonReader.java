@@ -0,0 +1,90 @@
+package book.realworldsoftwaredevelopment.chapter2.v4.example;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+// Jackson 의 스트리밍 JsonParser 로 토큰을 하나씩 당겨 읽는다. 한 번에 메모리에 있는 것은 거래 한 건뿐이다.
+// 다음 형식을 모두 받는다.
+//   [{"date": ..., "amount": ..., "description": ...}, ...]
+//   {"transactions": [...]} 처럼 배열을 감싼 객체
+//   한 줄에 객체 하나씩(NDJSON)
+// date, amount, description 을 가진 객체를 거래로 보고, 그 밖의 필드는 건너뛴다.
+class BankTransactionJsonReader {
+
+    // JsonFactory 는 스레드 안전하고 만드는 비용이 크므로 공유한다. 입력은 호출한 쪽이 닫는다.
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private final BankTransactionParser bankTransactionParser;
+
+    BankTransactionJsonReader(final BankTransactionParser bankTransactionParser) {
+        this.bankTransactionParser = bankTransactionParser;
+    }
+
+    void read(final Reader reader, final Consumer<BankTransaction> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(reader)) {
+            read(parser, consumer);
+        }
+    }
+
+    void read(final InputStream inputStream, final Consumer<BankTransaction> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            read(parser, consumer);
+        }
+    }
+
+    private void read(final JsonParser parser, final Consumer<BankTransaction> consumer) throws IOException {
+        // 최상위 값이 여러 개일 수 있다(NDJSON).
+        for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+            readValue(parser, token, consumer);
+        }
+    }
+
+    private void readValue(final JsonParser parser, final JsonToken token, final Consumer<BankTransaction> consumer) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            for (JsonToken element = parser.nextToken(); element != JsonToken.END_ARRAY; element = parser.nextToken()) {
+                readValue(parser, element, consumer);
+            }
+        } else if (token == JsonToken.START_OBJECT) {
+            readObject(parser, consumer);
+        }
+    }
+
+    private void readObject(final JsonParser parser, final Consumer<BankTransaction> consumer) throws IOException {
+        String date = null;
+        String amount = null;
+        String description = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if (value.isScalarValue() && "date".equals(field)) {
+                date = parser.getText();
+            } else if (value.isScalarValue() && "amount".equals(field)) {
+                // 숫자도 원래 텍스트 그대로 받아서 double 을 거치지 않고 센트로 바꾼다.
+                amount = parser.getText();
+            } else if (value.isScalarValue() && "description".equals(field)) {
+                description = parser.getText();
+            } else if (value == JsonToken.START_ARRAY) {
+                readValue(parser, value, consumer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        // 거래 필드가 하나도 없으면 배열을 감싼 객체다.
+        if (date != null || amount != null || description != null) {
+            consumer.accept(bankTransactionParser.toBankTransaction(date, amount, description));
+        }
+    }
+}
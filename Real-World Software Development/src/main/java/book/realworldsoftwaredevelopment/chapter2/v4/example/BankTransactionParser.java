@@ -1,21 +1,99 @@
 package book.realworldsoftwaredevelopment.chapter2.v4.example;
 
+import book.realworldsoftwaredevelopment.chapter2.v2.BankStatementDateDecoder;
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v2.DescriptionDictionary;
+import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementCSVScanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class BankTransactionParser {
 
+    // null 이 아니면 반복되는 description 을 하나의 인스턴스로 공유한다.
+    private final DescriptionDictionary descriptionDictionary;
+    private final BankTransactionJsonReader jsonReader;
+    private final BankTransactionXmlReader xmlReader;
+
+    public BankTransactionParser() {
+        this(null);
+    }
+
+    public BankTransactionParser(final DescriptionDictionary descriptionDictionary) {
+        this.descriptionDictionary = descriptionDictionary;
+        this.jsonReader = new BankTransactionJsonReader(this);
+        this.xmlReader = new BankTransactionXmlReader(this);
+    }
+
     public BankTransaction parseFromCSV(final String line) {
         // ...
         throw new UnsupportedOperationException();
     }
 
+    // {"date": "30-01-2017", "amount": -50, "description": "Tesco"} 한 건
     public BankTransaction parseFromJSON(final String line) {
-        // ...
-        throw new UnsupportedOperationException();
+        final List<BankTransaction> bankTransactions = new ArrayList<>(1);
+        try {
+            parseFromJSON(new StringReader(line), bankTransactions::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return single(bankTransactions, line);
     }
 
+    // <transaction><date>30-01-2017</date><amount>-50</amount><description>Tesco</description></transaction> 한 건
     public BankTransaction parseFromXML(final String line) {
-        // ...
-        throw new UnsupportedOperationException();
+        final List<BankTransaction> bankTransactions = new ArrayList<>(1);
+        try {
+            parseFromXML(new StringReader(line), bankTransactions::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return single(bankTransactions, line);
+    }
+
+    // 수 GB 파일 - 트리를 만들지 않고 앞에서부터 읽으면서 거래를 한 건씩 넘긴다. reader 는 닫지 않는다.
+    public void parseFromJSON(final Reader reader, final Consumer<BankTransaction> consumer) throws IOException {
+        jsonReader.read(reader, consumer);
+    }
+
+    // 인코딩은 바이트에서 알아낸다(UTF-8, UTF-16, UTF-32).
+    public void parseFromJSON(final InputStream inputStream, final Consumer<BankTransaction> consumer) throws IOException {
+        jsonReader.read(inputStream, consumer);
+    }
+
+    public void parseFromXML(final Reader reader, final Consumer<BankTransaction> consumer) throws IOException {
+        xmlReader.read(reader, consumer);
+    }
+
+    // 인코딩은 XML 선언을 따른다.
+    public void parseFromXML(final InputStream inputStream, final Consumer<BankTransaction> consumer) throws IOException {
+        xmlReader.read(inputStream, consumer);
+    }
+
+    // JSON 과 XML 모두 CSV 와 같은 날짜(dd-MM-yyyy)와 금액 형식을 쓴다.
+    BankTransaction toBankTransaction(final String date, final String amount, final String description) {
+        if (date == null || amount == null || description == null) {
+            throw new IllegalArgumentException("Incomplete bank transaction: date=" + date
+                    + ", amount=" + amount + ", description=" + description);
+        }
+        return BankTransaction.ofCents(
+                BankStatementDateDecoder.parse(date, 0, date.length()),
+                BankStatementCSVScanner.parseCents(amount, 0, amount.length()),
+                descriptionDictionary == null ? description : descriptionDictionary.intern(description));
+    }
+
+    private static BankTransaction single(final List<BankTransaction> bankTransactions, final String line) {
+        if (bankTransactions.size() != 1) {
+            throw new IllegalArgumentException("Expected one bank transaction but found "
+                    + bankTransactions.size() + ": " + line);
+        }
+        return bankTransactions.get(0);
     }
 }
@@ -0,0 +1,102 @@
+package book.realworldsoftwaredevelopment.chapter2.v4.example;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+// StAX(XMLStreamReader)로 이벤트를 하나씩 당겨 읽는다. DOM 을 만들지 않으므로 한 번에 메모리에 있는 것은 거래 한 건뿐이다.
+// <transaction> 요소를 어디에서 만나든 거래로 읽는다. 감싸는 요소(<transactions>, <statement> ...)의 이름은 상관없다.
+//   <transaction><date>30-01-2017</date><amount>-50</amount><description>Tesco</description></transaction>
+class BankTransactionXmlReader {
+
+    private static final String TRANSACTION = "transaction";
+
+    // XMLInputFactory 는 설정을 마친 뒤에는 스레드 안전하다.
+    // 외부에서 받은 파일이므로 DTD 와 외부 엔티티는 읽지 않는다(XXE).
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+
+    private final BankTransactionParser bankTransactionParser;
+
+    BankTransactionXmlReader(final BankTransactionParser bankTransactionParser) {
+        this.bankTransactionParser = bankTransactionParser;
+    }
+
+    void read(final Reader reader, final Consumer<BankTransaction> consumer) throws IOException {
+        try {
+            read(XML_INPUT_FACTORY.createXMLStreamReader(reader), consumer);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML bank statement: " + e.getMessage(), e);
+        }
+    }
+
+    void read(final InputStream inputStream, final Consumer<BankTransaction> consumer) throws IOException {
+        try {
+            read(XML_INPUT_FACTORY.createXMLStreamReader(inputStream), consumer);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML bank statement: " + e.getMessage(), e);
+        }
+    }
+
+    // XMLStreamReader.close() 는 입력을 닫지 않는다.
+    private void read(final XMLStreamReader xml, final Consumer<BankTransaction> consumer) throws XMLStreamException {
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && TRANSACTION.equals(xml.getLocalName())) {
+                    consumer.accept(readTransaction(xml));
+                }
+            }
+        } finally {
+            xml.close();
+        }
+    }
+
+    // <transaction> 의 자식 요소를 </transaction> 까지 읽는다. 모르는 요소는 통째로 건너뛴다.
+    private BankTransaction readTransaction(final XMLStreamReader xml) throws XMLStreamException {
+        String date = null;
+        String amount = null;
+        String description = null;
+        while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (xml.getLocalName()) {
+                case "date":
+                    date = xml.getElementText().trim();
+                    break;
+                case "amount":
+                    amount = xml.getElementText().trim();
+                    break;
+                case "description":
+                    description = xml.getElementText();
+                    break;
+                default:
+                    skipElement(xml);
+            }
+        }
+        return bankTransactionParser.toBankTransaction(date, amount, description);
+    }
+
+    private static void skipElement(final XMLStreamReader xml) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,191 @@
+package book.realworldsoftwaredevelopment.chapter2.v4.example;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// read(id) 결과를 메모리에 두고 같은 id 를 다시 읽을 때는 데이터베이스에 가지 않는다.
+// 최대 maximumSize 건까지, 읽은 지 timeToLive 가 지나지 않은 거래만 둔다. 넘치면 가장 오래 쓰지 않은 거래부터 버린다.
+// insert 와 createAll 은 캐시에 없던 새 id 만 만드므로 캐시를 건드리지 않는다.
+// 잠금 경합을 줄이려고 id 로 나눈 구간(segment)마다 LRU 목록과 잠금을 따로 둔다.
+public class CachingBankTransactionDAO extends BankTransactionDAO {
+
+    private static final int MAX_SEGMENTS = 16;
+    // 작은 캐시는 나누지 않아야 전체에서 정확히 가장 오래 쓰지 않은 거래를 버린다.
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final Segment[] segments;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoTime;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public CachingBankTransactionDAO(final DataSource dataSource, final int maximumSize, final Duration timeToLive) {
+        this(dataSource, DEFAULT_BATCH_SIZE, maximumSize, timeToLive, System::nanoTime);
+    }
+
+    // nanoTime 은 만료 시각을 재는 시계. 테스트에서 바꿔 끼운다.
+    public CachingBankTransactionDAO(final DataSource dataSource, final int batchSize, final int maximumSize,
+                                     final Duration timeToLive, final LongSupplier nanoTime) {
+        super(dataSource, batchSize);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Invalid maximum size: " + maximumSize);
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Invalid time to live: " + timeToLive);
+        }
+        // 구간 수는 2의 거듭제곱이다.
+        final int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // 나머지는 앞쪽 구간에 한 건씩 더 준다. 합이 정확히 maximumSize 가 된다.
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public BankTransaction read(final long id) {
+        final Segment segment = segmentOf(id);
+        final long epoch;
+        synchronized (segment) {
+            final CachedTransaction entry = segment.entries.get(id);
+            if (entry != null && nanoTime.getAsLong() - entry.loadedAtNanos < timeToLiveNanos) {
+                hitCount.increment();
+                return entry.bankTransaction;
+            }
+            if (entry != null) {
+                segment.entries.remove(id);
+                evictionCount.increment();
+            }
+            epoch = segment.epoch;
+        }
+        missCount.increment();
+
+        // 데이터베이스는 잠금 밖에서 읽는다. 같은 id 를 동시에 놓치면 각자 읽는다.
+        final BankTransaction bankTransaction = super.read(id);
+        if (bankTransaction == null) {
+            return null;
+        }
+        synchronized (segment) {
+            // 읽는 동안 이 구간에 쓰기가 있었으면 방금 읽은 값이 이미 낡았을 수 있으므로 담지 않는다.
+            if (segment.epoch == epoch) {
+                segment.entries.put(id, new CachedTransaction(bankTransaction, nanoTime.getAsLong()));
+            }
+        }
+        return bankTransaction;
+    }
+
+    // 데이터베이스를 먼저 바꾸고 캐시에서 지운다. 이 메서드가 끝난 뒤의 read 는 새 값을 본다.
+    @Override
+    public BankTransaction update(final long id, final BankTransaction bankTransaction) {
+        try {
+            return super.update(id, bankTransaction);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean delete(final long id) {
+        try {
+            return super.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    // delete(BankTransaction) 는 지운 행의 id 를 여기서 돌려받으므로 그 id 만 무효화하면 된다.
+    // 실패하면 트랜잭션이 롤백되어 지운 행이 없다.
+    @Override
+    protected long deleteFirst(final BankTransaction bankTransaction) {
+        final long id = super.deleteFirst(bankTransaction);
+        if (id >= 0) {
+            invalidate(id);
+        }
+        return id;
+    }
+
+    public void invalidate(final long id) {
+        final Segment segment = segmentOf(id);
+        synchronized (segment) {
+            segment.entries.remove(id);
+            segment.epoch++;
+        }
+    }
+
+    public void invalidateAll() {
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.epoch++;
+            }
+        }
+    }
+
+    // 만료됐지만 아직 읽히지 않아 남아 있는 거래도 센다.
+    public int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    // 크기 제한이나 만료로 버린 건수. update, delete 로 지운 것은 세지 않는다.
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private Segment segmentOf(final long id) {
+        final int hash = Long.hashCode(id) * 0x9E3779B9;
+        return segments[(hash >>> 16) & (segments.length - 1)];
+    }
+
+    private static final class CachedTransaction {
+        private final BankTransaction bankTransaction;
+        private final long loadedAtNanos;
+
+        private CachedTransaction(final BankTransaction bankTransaction, final long loadedAtNanos) {
+            this.bankTransaction = bankTransaction;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    // 접근 순서 LinkedHashMap 으로 LRU 를 만든다. 모든 접근은 이 객체로 잠근다.
+    private final class Segment {
+        private final Map<Long, CachedTransaction> entries;
+        // 이 구간에 쓰기가 있을 때마다 늘린다.
+        private long epoch;
+
+        private Segment(final int maximumSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long, CachedTransaction> eldest) {
+                    if (size() > maximumSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Month;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BankStatementAnalyzerV5 {
 
@@ -32,6 +34,24 @@ public class BankStatementAnalyzerV5 {
                         bankTransaction.getDate().getMonth() == Month.FEBRUARY &&
                         bankTransaction.getAmount() >= 1_000);
 
+        // 조건을 BankTransactionQuery 로 표현하면 컬럼 스캔으로 평가된다.
+        final List<BankTransaction> transactionsByQuery = bankStatementProcessor.findTransactions(
+                BankTransactionQuery.monthEquals(Month.FEBRUARY)
+                        .and(BankTransactionQuery.amountGreaterThanEqual(100_000)));
+
+    }
+
+    // 조건에 맞는 거래만 남기므로, 파일 전체를 읽어 들이지 않아도 된다.
+    public List<BankTransaction> analyzeStreaming(final String fileName,
+                                                  final BankStatementParser bankStatementParser,
+                                                  final BankTransactionFilter bankTransactionFilter) throws IOException {
+        final Path path = Paths.get(RESOURCES + fileName);
+
+        try (Stream<String> lines = Files.lines(path)) {
+            return bankStatementParser.parseLinesFrom(lines)
+                    .filter(bankTransactionFilter::test)
+                    .collect(Collectors.toList());
+        }
     }
 
 }
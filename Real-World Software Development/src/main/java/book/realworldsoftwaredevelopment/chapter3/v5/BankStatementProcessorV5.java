@@ -1,22 +1,32 @@
 package book.realworldsoftwaredevelopment.chapter3.v5;
 
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v3.DateRangeIndex;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionBitmapIndex;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.Month;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 @RequiredArgsConstructor
 public class BankStatementProcessorV5 {
 
     private final List<BankTransaction> bankTransactions;
+    // BankTransactionQuery 를 처음 받을 때 만든다.
+    private TransactionBitmapIndex transactionBitmapIndex;
+    // 날짜 구간 질의를 처음 받을 때 만든다.
+    private DateRangeIndex dateRangeIndex;
 
     // 비추천 - findTransaction~으로 시작하는 filter 기능의 함수를 아래와 같이 구현하면 코드가 반복된다.
     public List<BankTransaction> findTransactionGreaterThanEqual(final int amount) {
         final List<BankTransaction> result = new ArrayList<>();
         for (BankTransaction bankTransaction : bankTransactions) {
-            if (bankTransaction.getAmount() >= amount) {
+            if (bankTransaction.getAmountInCents() >= amount * 100L) {
                 result.add(bankTransaction);
             }
         }
@@ -33,10 +43,25 @@ public class BankStatementProcessorV5 {
         return result;
     }
 
+    // Month 만 비교하는 findTransactionInMonth 와 달리 연도까지 비교한다.
+    public List<BankTransaction> findTransactionInMonth(final YearMonth yearMonth) {
+        return findTransactionsBetween(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+
+    // from, to 모두 포함하고 날짜순으로 돌려준다. 정렬된 날짜 인덱스에서 이진 탐색으로 구간을 찾는다.
+    public List<BankTransaction> findTransactionsBetween(final LocalDate from, final LocalDate to) {
+        final int[] rows = getDateRangeIndex().rowsBetween(from, to);
+        final List<BankTransaction> result = new ArrayList<>(rows.length);
+        for (final int row : rows) {
+            result.add(bankTransactions.get(row));
+        }
+        return result;
+    }
+
     public List<BankTransaction> findTransactionInMonthAndGreater(final Month month, final int amount) {
         final List<BankTransaction> result = new ArrayList<>();
         for (BankTransaction bankTransaction : bankTransactions) {
-            if (bankTransaction.getDate().getMonth() == month && bankTransaction.getAmount() >= amount) {
+            if (bankTransaction.getDate().getMonth() == month && bankTransaction.getAmountInCents() >= amount * 100L) {
                 result.add(bankTransaction);
             }
         }
@@ -45,6 +70,9 @@ public class BankStatementProcessorV5 {
 
     // 추천 - findTransaction~을 함수형 인터페이스로 구현
     public List<BankTransaction> findTransactions(final BankTransactionFilter bankTransactionFilter) {
+        if (bankTransactionFilter instanceof BankTransactionQuery) {
+            return findTransactions((BankTransactionQuery) bankTransactionFilter);
+        }
         final List<BankTransaction> result = new ArrayList<>();
         for (BankTransaction bankTransaction : bankTransactions) {
             if (bankTransactionFilter.test(bankTransaction)) {
@@ -53,4 +81,28 @@ public class BankStatementProcessorV5 {
         }
         return result;
     }
+
+    // 조건을 비트맵 인덱스로 평가하고, 맞은 행만 원래 리스트에서 꺼낸다.
+    public List<BankTransaction> findTransactions(final BankTransactionQuery bankTransactionQuery) {
+        final BitSet rows = bankTransactionQuery.select(getTransactionBitmapIndex());
+        final List<BankTransaction> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            result.add(bankTransactions.get(row));
+        }
+        return result;
+    }
+
+    private synchronized TransactionBitmapIndex getTransactionBitmapIndex() {
+        if (transactionBitmapIndex == null) {
+            transactionBitmapIndex = TransactionBitmapIndex.build(TransactionTable.from(bankTransactions));
+        }
+        return transactionBitmapIndex;
+    }
+
+    private synchronized DateRangeIndex getDateRangeIndex() {
+        if (dateRangeIndex == null) {
+            dateRangeIndex = DateRangeIndex.build(bankTransactions);
+        }
+        return dateRangeIndex;
+    }
 }
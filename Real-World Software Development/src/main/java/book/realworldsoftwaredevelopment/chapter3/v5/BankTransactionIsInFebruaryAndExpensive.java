@@ -8,6 +8,6 @@ public class BankTransactionIsInFebruaryAndExpensive implements BankTransactionF
     @Override
     public boolean test(BankTransaction bankTransaction) {
         return bankTransaction.getDate().getMonth() == Month.FEBRUARY
-                && bankTransaction.getAmount() >= 1_000;
+                && bankTransaction.getAmountInCents() >= 100_000;
     }
 }
@@ -0,0 +1,306 @@
+package book.realworldsoftwaredevelopment.chapter3.v5;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionBitmapIndex;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
+
+import java.time.Month;
+import java.util.Arrays;
+import java.util.BitSet;
+
+// 람다 대신 조건을 데이터로 표현한 BankTransactionFilter.
+// 조건의 내용을 알 수 있으므로 객체마다 test 를 부르지 않고 TransactionTable 의 컬럼을 훑어서
+// 조건에 맞는 행을 BitSet 으로 돌려준다. TransactionBitmapIndex 가 있으면 월/description/금액 조건은 비트맵 연산으로 답한다.
+// 임의의 람다는 of(...) 로 감싸면 행마다 test 를 부른다.
+public abstract class BankTransactionQuery implements BankTransactionFilter {
+
+    private BankTransactionQuery() {
+    }
+
+    public static BankTransactionQuery monthEquals(final Month month) {
+        return new MonthEquals(month);
+    }
+
+    // 양 끝을 포함한다.
+    public static BankTransactionQuery amountBetween(final long minInCents, final long maxInCents) {
+        return new AmountBetween(minInCents, maxInCents);
+    }
+
+    public static BankTransactionQuery amountGreaterThanEqual(final long minInCents) {
+        return new AmountBetween(minInCents, Long.MAX_VALUE);
+    }
+
+    public static BankTransactionQuery descriptionEquals(final String description) {
+        return new DescriptionEquals(description);
+    }
+
+    public static BankTransactionQuery of(final BankTransactionFilter bankTransactionFilter) {
+        if (bankTransactionFilter instanceof BankTransactionQuery) {
+            return (BankTransactionQuery) bankTransactionFilter;
+        }
+        return new Fallback(bankTransactionFilter);
+    }
+
+    public BankTransactionQuery and(final BankTransactionFilter other) {
+        return new And(this, of(other));
+    }
+
+    public BankTransactionQuery or(final BankTransactionFilter other) {
+        return new Or(this, of(other));
+    }
+
+    public BankTransactionQuery not() {
+        return new Not(this);
+    }
+
+    // 조건에 맞는 행 번호를 BitSet 으로 돌려준다.
+    public BitSet select(final TransactionTable table) {
+        final long[] rows = new long[(table.size() + Long.SIZE - 1) / Long.SIZE];
+        Arrays.fill(rows, -1L);
+        if (table.size() % Long.SIZE != 0) {
+            rows[rows.length - 1] = (1L << table.size()) - 1;
+        }
+        retain(table, null, rows);
+        return BitSet.valueOf(rows);
+    }
+
+    public BitSet select(final TransactionBitmapIndex index) {
+        final long[] rows = index.allRows();
+        retain(index.getTransactionTable(), index, rows);
+        return BitSet.valueOf(rows);
+    }
+
+    // rows 는 64행씩 묶은 비트 배열이다. 켜진 행 중에서 조건에 맞지 않는 행의 비트를 끈다.
+    // 이미 꺼진 행은 다시 보지 않으므로 AND 로 이어질수록 검사할 행이 줄어든다. index 는 null 일 수 있다.
+    abstract void retain(TransactionTable table, TransactionBitmapIndex index, long[] rows);
+
+    // 컬럼 하나를 비교하는 조건. 켜진 비트만 따라가며 컬럼 값을 비교한다.
+    private abstract static class ColumnQuery extends BankTransactionQuery {
+
+        abstract boolean matches(TransactionTable table, int row);
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            for (int word = 0; word < rows.length; word++) {
+                long remaining = rows[word];
+                if (remaining == -1L) {
+                    // 64행이 모두 후보이면 분기 없이 순서대로 훑는다.
+                    long kept = 0;
+                    final int first = word << 6;
+                    for (int bit = 0; bit < Long.SIZE; bit++) {
+                        kept |= (matches(table, first + bit) ? 1L : 0L) << bit;
+                    }
+                    rows[word] = kept;
+                    continue;
+                }
+                long kept = remaining;
+                while (remaining != 0) {
+                    final int bit = Long.numberOfTrailingZeros(remaining);
+                    if (!matches(table, (word << 6) + bit)) {
+                        kept &= ~(1L << bit);
+                    }
+                    remaining &= remaining - 1;
+                }
+                rows[word] = kept;
+            }
+        }
+    }
+
+    private static final class MonthEquals extends ColumnQuery {
+
+        private final Month month;
+        private final int monthValue;
+
+        private MonthEquals(final Month month) {
+            this.month = month;
+            this.monthValue = month.getValue();
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            return bankTransaction.getDate().getMonth() == month;
+        }
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            if (index == null) {
+                super.retain(table, null, rows);
+            } else {
+                index.retainMonth(rows, month);
+            }
+        }
+
+        @Override
+        boolean matches(final TransactionTable table, final int row) {
+            return table.month(row) == monthValue;
+        }
+    }
+
+    private static final class AmountBetween extends ColumnQuery {
+
+        private final long minInCents;
+        private final long maxInCents;
+
+        private AmountBetween(final long minInCents, final long maxInCents) {
+            this.minInCents = minInCents;
+            this.maxInCents = maxInCents;
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            final long amountInCents = bankTransaction.getAmountInCents();
+            return amountInCents >= minInCents && amountInCents <= maxInCents;
+        }
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            if (index == null) {
+                super.retain(table, null, rows);
+            } else {
+                index.retainAmountBetween(rows, minInCents, maxInCents);
+            }
+        }
+
+        @Override
+        boolean matches(final TransactionTable table, final int row) {
+            final long amountInCents = table.amountInCents(row);
+            return amountInCents >= minInCents && amountInCents <= maxInCents;
+        }
+    }
+
+    private static final class DescriptionEquals extends BankTransactionQuery {
+
+        private final String description;
+
+        private DescriptionEquals(final String description) {
+            this.description = description;
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            return description.equals(bankTransaction.getDescription());
+        }
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            if (index != null) {
+                index.retainDescription(rows, description);
+                return;
+            }
+            // 사전 코드 하나만 찾으면 나머지는 int 비교로 끝난다. 사전에 없으면 맞는 행이 없다.
+            final int code = table.codeOf(description);
+            if (code < 0) {
+                Arrays.fill(rows, 0L);
+                return;
+            }
+            for (int word = 0; word < rows.length; word++) {
+                long remaining = rows[word];
+                long kept = remaining;
+                while (remaining != 0) {
+                    final int bit = Long.numberOfTrailingZeros(remaining);
+                    if (table.descriptionCode((word << 6) + bit) != code) {
+                        kept &= ~(1L << bit);
+                    }
+                    remaining &= remaining - 1;
+                }
+                rows[word] = kept;
+            }
+        }
+    }
+
+    private static final class And extends BankTransactionQuery {
+
+        private final BankTransactionQuery left;
+        private final BankTransactionQuery right;
+
+        private And(final BankTransactionQuery left, final BankTransactionQuery right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            return left.test(bankTransaction) && right.test(bankTransaction);
+        }
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            // 왼쪽에서 남은 행만 오른쪽에서 검사한다.
+            left.retain(table, index, rows);
+            right.retain(table, index, rows);
+        }
+    }
+
+    private static final class Or extends BankTransactionQuery {
+
+        private final BankTransactionQuery left;
+        private final BankTransactionQuery right;
+
+        private Or(final BankTransactionQuery left, final BankTransactionQuery right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            return left.test(bankTransaction) || right.test(bankTransaction);
+        }
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            final long[] rest = rows.clone();
+            left.retain(table, index, rows);
+            // 왼쪽에서 이미 맞은 행은 오른쪽에서 다시 검사하지 않는다.
+            for (int word = 0; word < rows.length; word++) {
+                rest[word] &= ~rows[word];
+            }
+            right.retain(table, index, rest);
+            for (int word = 0; word < rows.length; word++) {
+                rows[word] |= rest[word];
+            }
+        }
+    }
+
+    private static final class Not extends BankTransactionQuery {
+
+        private final BankTransactionQuery query;
+
+        private Not(final BankTransactionQuery query) {
+            this.query = query;
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            return !query.test(bankTransaction);
+        }
+
+        @Override
+        void retain(final TransactionTable table, final TransactionBitmapIndex index, final long[] rows) {
+            final long[] matched = rows.clone();
+            query.retain(table, index, matched);
+            for (int word = 0; word < rows.length; word++) {
+                rows[word] &= ~matched[word];
+            }
+        }
+    }
+
+    // 내용을 알 수 없는 람다는 행을 BankTransaction 으로 만들어 test 를 부른다.
+    private static final class Fallback extends ColumnQuery {
+
+        private final BankTransactionFilter bankTransactionFilter;
+
+        private Fallback(final BankTransactionFilter bankTransactionFilter) {
+            this.bankTransactionFilter = bankTransactionFilter;
+        }
+
+        @Override
+        public boolean test(final BankTransaction bankTransaction) {
+            return bankTransactionFilter.test(bankTransaction);
+        }
+
+        @Override
+        boolean matches(final TransactionTable table, final int row) {
+            return bankTransactionFilter.test(table.get(row));
+        }
+    }
+}
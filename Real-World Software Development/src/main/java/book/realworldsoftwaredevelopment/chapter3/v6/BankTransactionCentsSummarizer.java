@@ -0,0 +1,8 @@
+package book.realworldsoftwaredevelopment.chapter3.v6;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+@FunctionalInterface
+public interface BankTransactionCentsSummarizer {
+    long summarize(long accumulator, BankTransaction bankTransaction);
+}
@@ -7,11 +7,22 @@ import lombok.RequiredArgsConstructor;
 import java.time.Month;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class BankTransactionProcessorV6 {
 
+    // 병렬 요약에서 이보다 작은 구간은 더 나누지 않는다.
+    // 풀의 스레드 수와 상관없이 항상 같은 경계로 나누고 같은 순서로 합치므로 double 결과도 매번 같다.
+    static final int PARALLEL_THRESHOLD = 8_192;
+
     private final List<BankTransaction> bankTransactions;
 
     public double summarizeTransactions(final BankTransactionSummarizer bankTransactionSummarizer) {
@@ -22,9 +33,62 @@ public class BankTransactionProcessorV6 {
         return result;
     }
 
+    // 센트 단위 long 으로 누적하면 건수가 많아도 합계에 오차가 생기지 않는다.
+    public long summarizeTransactionsInCents(final BankTransactionCentsSummarizer bankTransactionCentsSummarizer) {
+        long result = 0;
+        for (BankTransaction bankTransaction : bankTransactions) {
+            result = bankTransactionCentsSummarizer.summarize(result, bankTransaction);
+        }
+        return result;
+    }
+
+    // 구간마다 0 에서 시작해 summarizer 로 누적하고, 구간 결과를 combiner 로 합친다.
+    // combiner 는 결합 법칙을 만족해야 한다.
+    public double summarizeTransactionsInParallel(final BankTransactionSummarizer bankTransactionSummarizer,
+                                                  final DoubleBinaryOperator combiner) {
+        return summarizeTransactionsInParallel(Collector.of(
+                () -> new double[1],
+                (result, bankTransaction) -> result[0] = bankTransactionSummarizer.summarize(result[0], bankTransaction),
+                (left, right) -> {
+                    left[0] = combiner.applyAsDouble(left[0], right[0]);
+                    return left;
+                },
+                result -> result[0]));
+    }
+
+    public long summarizeTransactionsInCentsInParallel(final BankTransactionCentsSummarizer bankTransactionCentsSummarizer,
+                                                       final LongBinaryOperator combiner) {
+        return summarizeTransactionsInParallel(Collector.of(
+                () -> new long[1],
+                (result, bankTransaction) -> result[0] = bankTransactionCentsSummarizer.summarize(result[0], bankTransaction),
+                (left, right) -> {
+                    left[0] = combiner.applyAsLong(left[0], right[0]);
+                    return left;
+                },
+                result -> result[0]));
+    }
+
+    public <A, R> R summarizeTransactionsInParallel(final Collector<BankTransaction, A, R> collector) {
+        return summarizeTransactionsInParallel(collector, ForkJoinPool.commonPool());
+    }
+
+    public <A, R> R summarizeTransactionsInParallel(final Collector<BankTransaction, A, R> collector,
+                                                    final ForkJoinPool forkJoinPool) {
+        // 구간을 인덱스로 나누므로 임의 접근이 느린 리스트는 한 번 복사한다.
+        final List<BankTransaction> source = bankTransactions instanceof RandomAccess
+                ? bankTransactions
+                : new ArrayList<>(bankTransactions);
+        final A result = forkJoinPool.invoke(new SummarizeTask<>(source, 0, source.size(), collector));
+        return collector.finisher().apply(result);
+    }
+
     public double calculateTotalInMonth(final Month month) {
-        return summarizeTransactions((acc, bankTransaction)
-                -> bankTransaction.getDate().getMonth() == month ? acc + bankTransaction.getAmount() : acc);
+        return calculateTotalInMonthInCents(month) / 100d;
+    }
+
+    public long calculateTotalInMonthInCents(final Month month) {
+        return summarizeTransactionsInCents((acc, bankTransaction)
+                -> bankTransaction.getDate().getMonth() == month ? acc + bankTransaction.getAmountInCents() : acc);
     }
 
     // ...
@@ -40,15 +104,50 @@ public class BankTransactionProcessorV6 {
     }
 
     public List<BankTransaction> findTransactionGreaterThanEqual(final int amount) {
-        return findTransactions(bankTransaction -> bankTransaction.getAmount() >= amount);
+        return findTransactions(bankTransaction -> bankTransaction.getAmountInCents() >= amount * 100L);
     }
 
     // 스트림 활용 예시
     public List<BankTransaction> findTransactionGreaterThanEqualByStream(final int amount) {
         return bankTransactions.stream()
-                .filter(bankTransaction -> bankTransaction.getAmount() >= amount)
+                .filter(bankTransaction -> bankTransaction.getAmountInCents() >= amount * 100L)
                 .collect(Collectors.toList());
     }
 
     // ...
+
+    private static class SummarizeTask<A> extends RecursiveTask<A> {
+
+        private final List<BankTransaction> bankTransactions;
+        private final int from;
+        private final int to;
+        private final Collector<BankTransaction, A, ?> collector;
+
+        private SummarizeTask(final List<BankTransaction> bankTransactions, final int from, final int to,
+                              final Collector<BankTransaction, A, ?> collector) {
+            this.bankTransactions = bankTransactions;
+            this.from = from;
+            this.to = to;
+            this.collector = collector;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                final A result = collector.supplier().get();
+                final BiConsumer<A, BankTransaction> accumulator = collector.accumulator();
+                for (int i = from; i < to; i++) {
+                    accumulator.accept(result, bankTransactions.get(i));
+                }
+                return result;
+            }
+            final int middle = (from + to) >>> 1;
+            final SummarizeTask<A> left = new SummarizeTask<>(bankTransactions, from, middle, collector);
+            final SummarizeTask<A> right = new SummarizeTask<>(bankTransactions, middle, to, collector);
+            left.fork();
+            final A rightResult = right.compute();
+            // 항상 왼쪽, 오른쪽 순서로 합친다.
+            return collector.combiner().apply(left.join(), rightResult);
+        }
+    }
 }
@@ -0,0 +1,245 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// BankStatementValidator.validate() 와 같은 규칙으로 여러 행을 한 번에 검사한다.
+// 날짜와 금액을 예외 없이 직접 검사하고, 행마다 오류를 비트 플래그(byte)로만 기록한다.
+// 오류가 없는 행에는 아무것도 만들지 않는다.
+public class BatchBankStatementValidator {
+
+    public static final byte VALID = 0;
+    public static final byte DESCRIPTION_TOO_LONG = 1;
+    public static final byte INVALID_DATE = 1 << 1;
+    public static final byte DATE_IN_FUTURE = 1 << 2;
+    public static final byte INVALID_AMOUNT = 1 << 3;
+
+    private static final int MAX_DESCRIPTION_LENGTH = 100;
+    private static final long MAX_YEAR = 999_999_999;
+
+    private final LocalDate today;
+
+    public BatchBankStatementValidator() {
+        this(LocalDate.now());
+    }
+
+    // 미래 날짜 여부를 판단할 기준일. 한 번의 검사 동안 바뀌지 않는다.
+    public BatchBankStatementValidator(final LocalDate today) {
+        this.today = today;
+    }
+
+    // 세 컬럼의 크기는 같아야 한다.
+    public BatchValidationResult validate(final List<? extends CharSequence> descriptions,
+                                          final List<? extends CharSequence> dates,
+                                          final List<? extends CharSequence> amounts) {
+        if (descriptions.size() != dates.size() || dates.size() != amounts.size()) {
+            throw new IllegalArgumentException("Columns must have the same size: "
+                    + descriptions.size() + ", " + dates.size() + ", " + amounts.size());
+        }
+        final byte[] errorCodes = new byte[descriptions.size()];
+        validateRange(descriptions, dates, amounts, 0, errorCodes.length, errorCodes);
+        return new BatchValidationResult(errorCodes);
+    }
+
+    // [from, to) 행만 검사해서 errorCodes[row - from] 에 채운다. 병렬 검사에서 구간마다 호출한다.
+    void validateRange(final List<? extends CharSequence> descriptions,
+                       final List<? extends CharSequence> dates,
+                       final List<? extends CharSequence> amounts,
+                       final int from, final int to, final byte[] errorCodes) {
+        // 컬럼별로 따로 훑는다.
+        for (int row = from; row < to; row++) {
+            if (descriptions.get(row).length() > MAX_DESCRIPTION_LENGTH) {
+                errorCodes[row - from] |= DESCRIPTION_TOO_LONG;
+            }
+        }
+        for (int row = from; row < to; row++) {
+            errorCodes[row - from] |= checkDate(dates.get(row));
+        }
+        for (int row = from; row < to; row++) {
+            if (!isDouble(amounts.get(row))) {
+                errorCodes[row - from] |= INVALID_AMOUNT;
+            }
+        }
+    }
+
+    public byte validateRow(final CharSequence description, final CharSequence date, final CharSequence amount) {
+        byte errorCode = VALID;
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            errorCode |= DESCRIPTION_TOO_LONG;
+        }
+        errorCode |= checkDate(date);
+        if (!isDouble(amount)) {
+            errorCode |= INVALID_AMOUNT;
+        }
+        return errorCode;
+    }
+
+    // LocalDate.parse 의 ISO_LOCAL_DATE 형식(yyyy-MM-dd, 4자리를 넘는 연도는 + 부호, 음수 연도는 - 부호)
+    private byte checkDate(final CharSequence date) {
+        final int length = date.length();
+        int position = 0;
+        boolean negative = false;
+        boolean signed = false;
+        if (length > 0 && (date.charAt(0) == '+' || date.charAt(0) == '-')) {
+            negative = date.charAt(0) == '-';
+            signed = true;
+            position++;
+        }
+        final int yearStart = position;
+        long year = 0;
+        while (position < length && isDigit(date.charAt(position)) && position - yearStart < 10) {
+            year = year * 10 + (date.charAt(position) - '0');
+            position++;
+        }
+        final int yearDigits = position - yearStart;
+        // 부호 없는 연도는 정확히 4자리, + 는 4자리 초과, - 는 4자리 이상. 음수 0년은 허용하지 않는다.
+        final boolean validYear = signed
+                ? yearDigits >= (negative ? 4 : 5) && !(negative && year == 0)
+                : yearDigits == 4;
+        if (!validYear || year > MAX_YEAR || length - position != 6
+                || date.charAt(position) != '-' || date.charAt(position + 3) != '-'
+                || !isDigit(date.charAt(position + 1)) || !isDigit(date.charAt(position + 2))
+                || !isDigit(date.charAt(position + 4)) || !isDigit(date.charAt(position + 5))) {
+            return INVALID_DATE;
+        }
+        final long signedYear = negative ? -year : year;
+        final int month = (date.charAt(position + 1) - '0') * 10 + (date.charAt(position + 2) - '0');
+        final int day = (date.charAt(position + 4) - '0') * 10 + (date.charAt(position + 5) - '0');
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(signedYear, month)) {
+            return INVALID_DATE;
+        }
+        return isAfterToday(signedYear, month, day) ? DATE_IN_FUTURE : VALID;
+    }
+
+    private boolean isAfterToday(final long year, final int month, final int day) {
+        if (year != today.getYear()) {
+            return year > today.getYear();
+        }
+        if (month != today.getMonthValue()) {
+            return month > today.getMonthValue();
+        }
+        return day > today.getDayOfMonth();
+    }
+
+    private static int lengthOfMonth(final long year, final int month) {
+        switch (month) {
+            case 2:
+                final boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Double.parseDouble 이 받아들이는 문법: 앞뒤 공백, 부호, NaN, Infinity, 10진수(지수, f/d 접미사), 16진수(p 지수 필수)
+    static boolean isDouble(final CharSequence value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        int position = start;
+        if (value.charAt(position) == '+' || value.charAt(position) == '-') {
+            position++;
+        }
+        if (regionEquals(value, position, end, "NaN") || regionEquals(value, position, end, "Infinity")) {
+            return true;
+        }
+        if (end - position > 2 && value.charAt(position) == '0'
+                && (value.charAt(position + 1) == 'x' || value.charAt(position + 1) == 'X')) {
+            return isHexDouble(value, position + 2, end);
+        }
+
+        int digits = 0;
+        while (position < end && isDigit(value.charAt(position))) {
+            position++;
+            digits++;
+        }
+        if (position < end && value.charAt(position) == '.') {
+            position++;
+            while (position < end && isDigit(value.charAt(position))) {
+                position++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (position < end && (value.charAt(position) == 'e' || value.charAt(position) == 'E')) {
+            position = skipExponent(value, position + 1, end);
+            if (position < 0) {
+                return false;
+            }
+        }
+        return isSuffix(value, position, end);
+    }
+
+    private static boolean isHexDouble(final CharSequence value, final int from, final int end) {
+        int position = from;
+        int digits = 0;
+        while (position < end && Character.digit(value.charAt(position), 16) >= 0 && value.charAt(position) < 128) {
+            position++;
+            digits++;
+        }
+        if (position < end && value.charAt(position) == '.') {
+            position++;
+            while (position < end && Character.digit(value.charAt(position), 16) >= 0 && value.charAt(position) < 128) {
+                position++;
+                digits++;
+            }
+        }
+        if (digits == 0 || position == end || (value.charAt(position) != 'p' && value.charAt(position) != 'P')) {
+            return false;
+        }
+        position = skipExponent(value, position + 1, end);
+        return position >= 0 && isSuffix(value, position, end);
+    }
+
+    // 부호와 한 자리 이상의 숫자를 건너뛴 위치. 숫자가 없으면 -1
+    private static int skipExponent(final CharSequence value, final int from, final int end) {
+        int position = from;
+        if (position < end && (value.charAt(position) == '+' || value.charAt(position) == '-')) {
+            position++;
+        }
+        final int digitsStart = position;
+        while (position < end && isDigit(value.charAt(position))) {
+            position++;
+        }
+        return position == digitsStart ? -1 : position;
+    }
+
+    private static boolean isSuffix(final CharSequence value, final int position, final int end) {
+        if (position == end) {
+            return true;
+        }
+        final char suffix = value.charAt(position);
+        return position + 1 == end && (suffix == 'f' || suffix == 'F' || suffix == 'd' || suffix == 'D');
+    }
+
+    private static boolean regionEquals(final CharSequence value, final int from, final int end, final String expected) {
+        if (end - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (value.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,79 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import static book.realworldsoftwaredevelopment.chapter3.v7.BatchBankStatementValidator.DATE_IN_FUTURE;
+import static book.realworldsoftwaredevelopment.chapter3.v7.BatchBankStatementValidator.DESCRIPTION_TOO_LONG;
+import static book.realworldsoftwaredevelopment.chapter3.v7.BatchBankStatementValidator.INVALID_AMOUNT;
+import static book.realworldsoftwaredevelopment.chapter3.v7.BatchBankStatementValidator.INVALID_DATE;
+import static book.realworldsoftwaredevelopment.chapter3.v7.BatchBankStatementValidator.VALID;
+
+// 행마다 오류 플래그 하나(byte)만 가진다. 메시지는 필요한 행에 대해서만 만든다.
+public class BatchValidationResult {
+
+    // BankStatementValidator.validate() 가 메시지를 추가하는 순서
+    static final byte[] ERRORS = {DESCRIPTION_TOO_LONG, DATE_IN_FUTURE, INVALID_DATE, INVALID_AMOUNT};
+
+    private final byte[] errorCodes;
+
+    BatchValidationResult(final byte[] errorCodes) {
+        this.errorCodes = errorCodes;
+    }
+
+    public int size() {
+        return errorCodes.length;
+    }
+
+    public byte errorCode(final int row) {
+        return errorCodes[row];
+    }
+
+    public boolean isValid(final int row) {
+        return errorCodes[row] == VALID;
+    }
+
+    public int invalidRowCount() {
+        int count = 0;
+        for (final byte errorCode : errorCodes) {
+            if (errorCode != VALID) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 해당 오류가 있는 행의 수
+    public int countOf(final byte error) {
+        int count = 0;
+        for (final byte errorCode : errorCodes) {
+            if ((errorCode & error) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // BankStatementValidator.validate() 와 같은 메시지
+    public Notification toNotification(final int row) {
+        final Notification notification = new Notification();
+        for (final byte error : ERRORS) {
+            if ((errorCodes[row] & error) != 0) {
+                notification.addError(messageOf(error));
+            }
+        }
+        return notification;
+    }
+
+    static String messageOf(final byte error) {
+        switch (error) {
+            case DESCRIPTION_TOO_LONG:
+                return "The description is too long";
+            case DATE_IN_FUTURE:
+                return "date cannot be in the future";
+            case INVALID_DATE:
+                return "Invalid format for date";
+            case INVALID_AMOUNT:
+                return "Invalid format for amount";
+            default:
+                throw new IllegalArgumentException("Unknown error code: " + error);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.io.IOException;
+
+// 한 줄에 통계 하나. 값이 없는 항목은 비워 둔다.
+public class CsvExporter implements StreamingExporter {
+
+    @Override
+    public void writeHeader(final Appendable out) throws IOException {
+        out.append(String.join(",", StatisticsColumns.NAMES)).append('\n');
+    }
+
+    @Override
+    public void writeStatistics(final SummaryStatistics summaryStatistics, final int index, final Appendable out) throws IOException {
+        final double[] values = StatisticsColumns.values(summaryStatistics);
+        for (int column = 0; column < values.length; column++) {
+            if (column > 0) {
+                out.append(',');
+            }
+            if (!Double.isNaN(values[column])) {
+                StatisticsColumns.appendNumber(out, values[column]);
+            }
+        }
+        out.append('\n');
+    }
+
+    @Override
+    public void writeFooter(final Appendable out) {
+    }
+}
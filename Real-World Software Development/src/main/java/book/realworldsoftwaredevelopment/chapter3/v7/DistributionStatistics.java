@@ -0,0 +1,44 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import lombok.Getter;
+
+// SummaryStatistics 에 건수, 분산, 근사 백분위수, 금액 구간별 건수를 더한 것.
+// SummaryStatisticsAccumulator 가 한 번의 순회로 만든다.
+@Getter
+public class DistributionStatistics extends SummaryStatistics {
+
+    private final long count;
+    private final double variance;
+    private final double p50;
+    private final double p95;
+    private final double p99;
+    // 금액을 자릿수(10배 단위)로 나눈 구간의 아래쪽 경계와 구간별 건수. 비어 있는 양 끝 구간은 뺀다.
+    private final double[] histogramLowerBounds;
+    private final long[] histogramCounts;
+
+    public DistributionStatistics(final double sum, final double max, final double min, final double average,
+                                  final long count, final double variance,
+                                  final double p50, final double p95, final double p99,
+                                  final double[] histogramLowerBounds, final long[] histogramCounts) {
+        super(sum, max, min, average);
+        this.count = count;
+        this.variance = variance;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.histogramLowerBounds = histogramLowerBounds.clone();
+        this.histogramCounts = histogramCounts.clone();
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    public double[] getHistogramLowerBounds() {
+        return histogramLowerBounds.clone();
+    }
+
+    public long[] getHistogramCounts() {
+        return histogramCounts.clone();
+    }
+}
@@ -1,8 +1,34 @@
 package book.realworldsoftwaredevelopment.chapter3.v7;
 
-public class HtmlExporter implements Exporter {
+import java.io.IOException;
+
+public class HtmlExporter implements StreamingExporter {
+
+    @Override
+    public void writeHeader(final Appendable out) throws IOException {
+        out.append("<!doctype html>\n<html lang='en'>\n<head><title>Bank Transaction Report</title></head>\n<body>\n");
+        out.append("<table>\n<tr><th>#</th>");
+        for (final String name : StatisticsColumns.NAMES) {
+            out.append("<th>").append(name).append("</th>");
+        }
+        out.append("</tr>\n");
+    }
+
+    @Override
+    public void writeStatistics(final SummaryStatistics summaryStatistics, final int index, final Appendable out) throws IOException {
+        out.append("<tr><td>").append(Integer.toString(index + 1)).append("</td>");
+        for (final double value : StatisticsColumns.values(summaryStatistics)) {
+            out.append("<td>");
+            if (!Double.isNaN(value)) {
+                StatisticsColumns.appendNumber(out, value);
+            }
+            out.append("</td>");
+        }
+        out.append("</tr>\n");
+    }
+
     @Override
-    public String export(SummaryStatistics summaryStatistics) {
-        return "Something calculated";
+    public void writeFooter(final Appendable out) throws IOException {
+        out.append("</table>\n</body>\n</html>\n");
     }
 }
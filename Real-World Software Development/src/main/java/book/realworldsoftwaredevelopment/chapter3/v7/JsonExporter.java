@@ -0,0 +1,40 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.io.IOException;
+
+// 통계 객체들의 JSON 배열. 값이 없는 항목은 쓰지 않는다.
+public class JsonExporter implements StreamingExporter {
+
+    @Override
+    public void writeHeader(final Appendable out) throws IOException {
+        out.append('[');
+    }
+
+    @Override
+    public void writeStatistics(final SummaryStatistics summaryStatistics, final int index, final Appendable out) throws IOException {
+        if (index > 0) {
+            out.append(',');
+        }
+        out.append('{');
+        final double[] values = StatisticsColumns.values(summaryStatistics);
+        boolean first = true;
+        for (int column = 0; column < values.length; column++) {
+            // JSON 에는 NaN, Infinity 가 없다.
+            if (Double.isNaN(values[column]) || Double.isInfinite(values[column])) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            out.append('"').append(StatisticsColumns.NAMES[column]).append("\":");
+            StatisticsColumns.appendNumber(out, values[column]);
+            first = false;
+        }
+        out.append('}');
+    }
+
+    @Override
+    public void writeFooter(final Appendable out) throws IOException {
+        out.append("]\n");
+    }
+}
@@ -0,0 +1,185 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 행을 구간으로 나눠 ForkJoinPool 에서 동시에 검사한다.
+// 오류 메시지를 행마다 만들지 않고 종류별 건수만 센다. 메시지는 종류마다 samplesPerError 개까지만 남긴다.
+// 오류 행 수가 maxInvalidRows 를 넘으면 나머지 행은 검사하지 않고 멈춘다.
+public class ParallelBankStatementValidator {
+
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+    private static final int DEFAULT_SAMPLES_PER_ERROR = 10;
+    // 이보다 작은 구간은 더 나누지 않는다.
+    private static final int SHARD_SIZE = 16_384;
+    // 이만큼 검사할 때마다 멈춰야 하는지 확인한다.
+    private static final int CHUNK_SIZE = 1_024;
+    private static final int MAX_SAMPLE_VALUE_LENGTH = 40;
+
+    private final BatchBankStatementValidator validator;
+    private final ForkJoinPool forkJoinPool;
+    private final int samplesPerError;
+    private final long maxInvalidRows;
+
+    public ParallelBankStatementValidator() {
+        this(new BatchBankStatementValidator(), ForkJoinPool.commonPool(), DEFAULT_SAMPLES_PER_ERROR, NO_LIMIT);
+    }
+
+    public ParallelBankStatementValidator(final BatchBankStatementValidator validator, final ForkJoinPool forkJoinPool,
+                                          final int samplesPerError, final long maxInvalidRows) {
+        if (samplesPerError < 0) {
+            throw new IllegalArgumentException("Invalid number of samples per error: " + samplesPerError);
+        }
+        if (maxInvalidRows < 0) {
+            throw new IllegalArgumentException("Invalid maximum number of invalid rows: " + maxInvalidRows);
+        }
+        this.validator = validator;
+        this.forkJoinPool = forkJoinPool;
+        this.samplesPerError = samplesPerError;
+        this.maxInvalidRows = maxInvalidRows;
+    }
+
+    public ValidationReport validate(final List<? extends CharSequence> descriptions,
+                                     final List<? extends CharSequence> dates,
+                                     final List<? extends CharSequence> amounts) {
+        if (descriptions.size() != dates.size() || dates.size() != amounts.size()) {
+            throw new IllegalArgumentException("Columns must have the same size: "
+                    + descriptions.size() + ", " + dates.size() + ", " + amounts.size());
+        }
+        final AtomicLong invalidRows = new AtomicLong();
+        final Shard shard = forkJoinPool.invoke(
+                new ValidationTask(descriptions, dates, amounts, 0, descriptions.size(), invalidRows));
+
+        final Map<Byte, Long> countsByError = new LinkedHashMap<>();
+        final Map<Byte, List<String>> samplesByError = new LinkedHashMap<>();
+        for (int i = 0; i < BatchValidationResult.ERRORS.length; i++) {
+            countsByError.put(BatchValidationResult.ERRORS[i], shard.counts[i]);
+            samplesByError.put(BatchValidationResult.ERRORS[i], List.copyOf(shard.samples.get(i)));
+        }
+        return new ValidationReport(shard.checkedRows, shard.invalidRows, countsByError, samplesByError,
+                shard.invalidRows > maxInvalidRows);
+    }
+
+    private String sampleOf(final int row, final byte error, final CharSequence description,
+                            final CharSequence date, final CharSequence amount) {
+        final String value;
+        if (error == BatchBankStatementValidator.DESCRIPTION_TOO_LONG) {
+            value = "length " + description.length();
+        } else if (error == BatchBankStatementValidator.INVALID_AMOUNT) {
+            value = abbreviate(amount);
+        } else {
+            value = abbreviate(date);
+        }
+        return "row " + row + ": " + BatchValidationResult.messageOf(error) + " (" + value + ")";
+    }
+
+    private static String abbreviate(final CharSequence value) {
+        return value.length() <= MAX_SAMPLE_VALUE_LENGTH
+                ? value.toString()
+                : value.subSequence(0, MAX_SAMPLE_VALUE_LENGTH) + "...";
+    }
+
+    // 구간 하나의 결과. 예시는 행 번호 순서로 samplesPerError 개까지만 가진다.
+    private class Shard {
+        private long checkedRows;
+        private long invalidRows;
+        private final long[] counts = new long[BatchValidationResult.ERRORS.length];
+        private final List<List<String>> samples = new ArrayList<>();
+
+        private Shard() {
+            for (int i = 0; i < counts.length; i++) {
+                samples.add(new ArrayList<>());
+            }
+        }
+
+        // 왼쪽 구간의 행이 항상 앞서므로 왼쪽 예시 뒤에 오른쪽 예시를 붙이면 행 번호 순서가 유지된다.
+        private Shard merge(final Shard right) {
+            checkedRows += right.checkedRows;
+            invalidRows += right.invalidRows;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += right.counts[i];
+                final List<String> merged = samples.get(i);
+                for (final String sample : right.samples.get(i)) {
+                    if (merged.size() == samplesPerError) {
+                        break;
+                    }
+                    merged.add(sample);
+                }
+            }
+            return this;
+        }
+    }
+
+    private class ValidationTask extends RecursiveTask<Shard> {
+
+        private final List<? extends CharSequence> descriptions;
+        private final List<? extends CharSequence> dates;
+        private final List<? extends CharSequence> amounts;
+        private final int from;
+        private final int to;
+        private final AtomicLong invalidRows;
+
+        private ValidationTask(final List<? extends CharSequence> descriptions, final List<? extends CharSequence> dates,
+                               final List<? extends CharSequence> amounts, final int from, final int to,
+                               final AtomicLong invalidRows) {
+            this.descriptions = descriptions;
+            this.dates = dates;
+            this.amounts = amounts;
+            this.from = from;
+            this.to = to;
+            this.invalidRows = invalidRows;
+        }
+
+        @Override
+        protected Shard compute() {
+            if (to - from <= SHARD_SIZE) {
+                return validateShard();
+            }
+            final int middle = (from + to) >>> 1;
+            final ValidationTask left = new ValidationTask(descriptions, dates, amounts, from, middle, invalidRows);
+            final ValidationTask right = new ValidationTask(descriptions, dates, amounts, middle, to, invalidRows);
+            left.fork();
+            final Shard rightShard = right.compute();
+            return left.join().merge(rightShard);
+        }
+
+        private Shard validateShard() {
+            final Shard shard = new Shard();
+            final byte[] errorCodes = new byte[CHUNK_SIZE];
+            for (int start = from; start < to && invalidRows.get() <= maxInvalidRows; start += CHUNK_SIZE) {
+                final int end = Math.min(to, start + CHUNK_SIZE);
+                Arrays.fill(errorCodes, BatchBankStatementValidator.VALID);
+                validator.validateRange(descriptions, dates, amounts, start, end, errorCodes);
+
+                long chunkInvalidRows = 0;
+                for (int row = start; row < end; row++) {
+                    final byte errorCode = errorCodes[row - start];
+                    if (errorCode == BatchBankStatementValidator.VALID) {
+                        continue;
+                    }
+                    chunkInvalidRows++;
+                    for (int i = 0; i < BatchValidationResult.ERRORS.length; i++) {
+                        final byte error = BatchValidationResult.ERRORS[i];
+                        if ((errorCode & error) == 0) {
+                            continue;
+                        }
+                        shard.counts[i]++;
+                        if (shard.samples.get(i).size() < samplesPerError) {
+                            shard.samples.get(i).add(sampleOf(row, error, descriptions.get(row), dates.get(row), amounts.get(row)));
+                        }
+                    }
+                }
+                shard.checkedRows += end - start;
+                shard.invalidRows += chunkInvalidRows;
+                invalidRows.addAndGet(chunkInvalidRows);
+            }
+            return shard;
+        }
+    }
+}
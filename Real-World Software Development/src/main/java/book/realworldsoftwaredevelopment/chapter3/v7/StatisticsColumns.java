@@ -0,0 +1,43 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.io.IOException;
+
+// 내보내기 형식마다 같은 순서로 쓰는 통계 항목.
+// DistributionStatistics 가 아니면 분포 항목은 값이 없다(NaN).
+final class StatisticsColumns {
+
+    static final String[] NAMES = {"sum", "max", "min", "average", "count", "variance", "p50", "p95", "p99"};
+    private static final int BASIC_COLUMNS = 4;
+
+    private StatisticsColumns() {
+    }
+
+    static double[] values(final SummaryStatistics summaryStatistics) {
+        final double[] values = new double[NAMES.length];
+        values[0] = summaryStatistics.getSum();
+        values[1] = summaryStatistics.getMax();
+        values[2] = summaryStatistics.getMin();
+        values[3] = summaryStatistics.getAverage();
+        if (summaryStatistics instanceof DistributionStatistics) {
+            final DistributionStatistics distribution = (DistributionStatistics) summaryStatistics;
+            values[4] = distribution.getCount();
+            values[5] = distribution.getVariance();
+            values[6] = distribution.getP50();
+            values[7] = distribution.getP95();
+            values[8] = distribution.getP99();
+        } else {
+            for (int column = BASIC_COLUMNS; column < values.length; column++) {
+                values[column] = Double.NaN;
+            }
+        }
+        return values;
+    }
+
+    // 건수처럼 정수인 값은 소수점 없이 쓴다.
+    static Appendable appendNumber(final Appendable out, final double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return out.append(Long.toString((long) value));
+        }
+        return out.append(Double.toString(value));
+    }
+}
@@ -0,0 +1,60 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// 보고서 전체를 String 으로 만들지 않고 Appendable(Writer, StringBuilder 등)에 바로 쓴다.
+// 여러 명세서의 통계를 이어 쓸 때도 한 번에 하나만 메모리에 있으면 된다.
+public interface StreamingExporter extends Exporter {
+
+    void writeHeader(Appendable out) throws IOException;
+
+    void writeStatistics(SummaryStatistics summaryStatistics, int index, Appendable out) throws IOException;
+
+    void writeFooter(Appendable out) throws IOException;
+
+    default <A extends Appendable> A export(final SummaryStatistics summaryStatistics, final A out) throws IOException {
+        return exportAll(List.of(summaryStatistics), out);
+    }
+
+    // 머리말을 쓴 뒤 바로 flush 해서 받는 쪽이 첫 바이트를 기다리지 않게 한다.
+    default <A extends Appendable> A exportAll(final Iterable<? extends SummaryStatistics> summaryStatistics, final A out) throws IOException {
+        writeHeader(out);
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+        int index = 0;
+        for (final SummaryStatistics statistics : summaryStatistics) {
+            writeStatistics(statistics, index++, out);
+        }
+        writeFooter(out);
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+        return out;
+    }
+
+    // UTF-8 로 인코딩해서 쓴다. out 은 닫지 않는다.
+    // PrintStream 은 Appendable 이기도 해서 exportAll 과 같은 이름이면 exportAll(list, System.out) 이 모호해진다.
+    default void exportAllTo(final Iterable<? extends SummaryStatistics> summaryStatistics, final OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        exportAll(summaryStatistics, writer);
+    }
+
+    @Override
+    default String export(final SummaryStatistics summaryStatistics) {
+        try {
+            return export(summaryStatistics, new StringBuilder()).toString();
+        } catch (IOException e) {
+            // StringBuilder 에 쓰는 동안에는 일어나지 않는다.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+// 거래 금액을 한 번씩만 보고 합계, 최솟값, 최댓값, 평균, 분산, 근사 백분위수, 금액 구간별 건수를 계산한다.
+// 정렬하거나 금액을 모아 두지 않으므로 메모리는 건수와 상관없이 일정하고,
+// 병렬로 나눈 구간마다 따로 누적한 뒤 combine 으로 합칠 수 있다.
+public class SummaryStatisticsAccumulator {
+
+    // 백분위수의 상대 오차. 금액을 (1 + α) / (1 - α) 배씩 커지는 로그 구간에 나눠 담는다.
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // 1 센트부터 Long.MAX_VALUE 센트까지 담을 수 있는 로그 구간 수
+    private static final int SKETCH_BUCKETS = (int) Math.ceil(Math.log(Long.MAX_VALUE) / LOG_GAMMA) + 1;
+    // 자릿수 구간: 음수 19개, 0, 양수 19개
+    private static final int MAX_DIGITS = 19;
+    private static final int ZERO_BIN = MAX_DIGITS;
+
+    private long count;
+    private long sumInCents;
+    private long minInCents = Long.MAX_VALUE;
+    private long maxInCents = Long.MIN_VALUE;
+    // 웰포드(Welford) 방식의 평균과 편차 제곱합. 단위는 센트.
+    private double mean;
+    private double squaredDeviations;
+    private final long[] positiveBuckets = new long[SKETCH_BUCKETS];
+    private final long[] negativeBuckets = new long[SKETCH_BUCKETS];
+    private long zeroCount;
+    private final long[] histogram = new long[2 * MAX_DIGITS + 1];
+
+    public static Collector<BankTransaction, SummaryStatisticsAccumulator, DistributionStatistics> collector() {
+        return Collector.of(SummaryStatisticsAccumulator::new, SummaryStatisticsAccumulator::accept,
+                SummaryStatisticsAccumulator::combine, SummaryStatisticsAccumulator::toStatistics);
+    }
+
+    public void accept(final BankTransaction bankTransaction) {
+        acceptCents(bankTransaction.getAmountInCents());
+    }
+
+    public void acceptCents(final long amountInCents) {
+        count++;
+        sumInCents += amountInCents;
+        minInCents = Math.min(minInCents, amountInCents);
+        maxInCents = Math.max(maxInCents, amountInCents);
+
+        final double delta = amountInCents - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (amountInCents - mean);
+
+        if (amountInCents > 0) {
+            positiveBuckets[bucketOf(amountInCents)]++;
+            histogram[ZERO_BIN + digitsOf(amountInCents)]++;
+        } else if (amountInCents < 0) {
+            negativeBuckets[bucketOf(-(double) amountInCents)]++;
+            histogram[ZERO_BIN - digitsOf(-(double) amountInCents)]++;
+        } else {
+            zeroCount++;
+            histogram[ZERO_BIN]++;
+        }
+    }
+
+    // 두 구간의 결과를 합친다. 평균과 편차 제곱합은 Chan 의 병렬 공식으로 합친다.
+    public SummaryStatisticsAccumulator combine(final SummaryStatisticsAccumulator other) {
+        if (other.count == 0) {
+            return this;
+        }
+        final long total = count + other.count;
+        final double delta = other.mean - mean;
+        squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        count = total;
+        sumInCents += other.sumInCents;
+        minInCents = Math.min(minInCents, other.minInCents);
+        maxInCents = Math.max(maxInCents, other.maxInCents);
+        zeroCount += other.zeroCount;
+        for (int i = 0; i < SKETCH_BUCKETS; i++) {
+            positiveBuckets[i] += other.positiveBuckets[i];
+            negativeBuckets[i] += other.negativeBuckets[i];
+        }
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // 모분산. 금액 단위(센트 아님)의 제곱이다.
+    public double getVariance() {
+        return count == 0 ? 0 : squaredDeviations / count / (100d * 100d);
+    }
+
+    // 상대 오차 RELATIVE_ACCURACY 안의 근사값. 0 <= quantile <= 1
+    public double getQuantile(final double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        // nearest-rank: 정렬했을 때 ceil(quantile * count) 번째 값
+        final long rank = Math.max(0, (long) Math.ceil(quantile * count) - 1);
+        long seen = 0;
+        double valueInCents = 0;
+        boolean found = false;
+        for (int i = SKETCH_BUCKETS - 1; i >= 0 && !found; i--) {
+            seen += negativeBuckets[i];
+            if (seen > rank) {
+                valueInCents = -valueOf(i);
+                found = true;
+            }
+        }
+        if (!found) {
+            seen += zeroCount;
+            found = seen > rank;
+        }
+        for (int i = 0; i < SKETCH_BUCKETS && !found; i++) {
+            seen += positiveBuckets[i];
+            if (seen > rank) {
+                valueInCents = valueOf(i);
+                found = true;
+            }
+        }
+        final double clamped = Math.max(minInCents, Math.min(maxInCents, valueInCents));
+        return clamped / 100;
+    }
+
+    public DistributionStatistics toStatistics() {
+        int first = 0;
+        int last = histogram.length - 1;
+        while (first <= last && histogram[first] == 0) {
+            first++;
+        }
+        while (last >= first && histogram[last] == 0) {
+            last--;
+        }
+        final double[] lowerBounds = new double[Math.max(0, last - first + 1)];
+        for (int bin = first; bin <= last; bin++) {
+            lowerBounds[bin - first] = lowerBoundOf(bin);
+        }
+        final long[] counts = first <= last ? Arrays.copyOfRange(histogram, first, last + 1) : new long[0];
+
+        return new DistributionStatistics(
+                sumInCents / 100d,
+                count == 0 ? 0 : maxInCents / 100d,
+                count == 0 ? 0 : minInCents / 100d,
+                count == 0 ? 0 : mean / 100,
+                count,
+                getVariance(),
+                getQuantile(0.5),
+                getQuantile(0.95),
+                getQuantile(0.99),
+                lowerBounds,
+                counts);
+    }
+
+    private static int bucketOf(final double magnitudeInCents) {
+        return (int) Math.ceil(Math.log(magnitudeInCents) / LOG_GAMMA);
+    }
+
+    // 로그 구간 i 의 대표값. 구간 양 끝과의 상대 오차가 RELATIVE_ACCURACY 이하가 된다.
+    private static double valueOf(final int bucket) {
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+
+    private static int digitsOf(final double magnitudeInCents) {
+        int digits = 1;
+        double bound = 10;
+        while (digits < MAX_DIGITS && magnitudeInCents >= bound) {
+            digits++;
+            bound *= 10;
+        }
+        return digits;
+    }
+
+    // 자릿수 구간의 아래쪽 경계(금액 단위). 음수 구간 d 는 [-(10^d - 1), -10^(d - 1)] 센트다.
+    private static double lowerBoundOf(final int bin) {
+        if (bin == ZERO_BIN) {
+            return 0;
+        }
+        if (bin > ZERO_BIN) {
+            return Math.pow(10, bin - ZERO_BIN - 1) / 100;
+        }
+        return -(Math.pow(10, ZERO_BIN - bin) - 1) / 100;
+    }
+}
@@ -0,0 +1,51 @@
+package book.realworldsoftwaredevelopment.chapter3.v7;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// 병렬 검사 결과. 오류 종류별 건수와 종류마다 정해진 수만큼의 예시 메시지만 가진다.
+public class ValidationReport {
+
+    private final long checkedRows;
+    private final long invalidRows;
+    private final Map<Byte, Long> countsByError;
+    private final Map<Byte, List<String>> samplesByError;
+    private final boolean rejected;
+
+    ValidationReport(final long checkedRows, final long invalidRows, final Map<Byte, Long> countsByError,
+                     final Map<Byte, List<String>> samplesByError, final boolean rejected) {
+        this.checkedRows = checkedRows;
+        this.invalidRows = invalidRows;
+        this.countsByError = countsByError;
+        this.samplesByError = samplesByError;
+        this.rejected = rejected;
+    }
+
+    // 중간에 멈췄으면 전체 행 수보다 작다.
+    public long getCheckedRows() {
+        return checkedRows;
+    }
+
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+
+    public long countOf(final byte error) {
+        return countsByError.getOrDefault(error, 0L);
+    }
+
+    // 행 번호가 작은 순서
+    public List<String> samplesOf(final byte error) {
+        return samplesByError.getOrDefault(error, Collections.emptyList());
+    }
+
+    // 오류 행 수가 기준을 넘어 검사를 멈췄는지
+    public boolean isRejected() {
+        return rejected;
+    }
+
+    public boolean hasErrors() {
+        return invalidRows > 0;
+    }
+}
@@ -1,13 +1,24 @@
 package book.realworldsoftwaredevelopment.chapter2;
 
 import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v2.DescriptionDictionary;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
 import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementCSVParserV4;
 import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementParser;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BankStatementCSVParserTest {
 
@@ -34,4 +45,92 @@ public class BankStatementCSVParserTest {
 
     }
 
+    @Test
+    public void shouldParseLinesFromStream() throws Exception {
+        final Stream<String> lines = Stream.of("30-01-2017,-50,Tesco", "01-02-2017,6000,Salary");
+
+        final List<BankTransaction> result = statementParser.parseLinesFrom(lines).collect(Collectors.toList());
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(LocalDate.of(2017, Month.FEBRUARY, 1), result.get(1).getDate());
+        Assertions.assertEquals("Salary", result.get(1).getDescription());
+    }
+
+    @Test
+    public void shouldParseOneCorrectLineFromBytes() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap("header\n05-02-2017,1000.25,Royal Albert Hall\n".getBytes(StandardCharsets.UTF_8));
+
+        final BankTransaction result = statementParser.parseFrom(buffer, 7, buffer.limit() - 1);
+
+        Assertions.assertEquals(LocalDate.of(2017, Month.FEBRUARY, 5), result.getDate());
+        Assertions.assertEquals(1000.25, result.getAmount(), 0.0d);
+        Assertions.assertEquals("Royal Albert Hall", result.getDescription());
+    }
+
+    @Test
+    public void shouldParseAmountInCents() throws Exception {
+        Assertions.assertEquals(-123456L, statementParser.parseFrom("30-01-2017,-1234.56,Tesco").getAmountInCents());
+        Assertions.assertEquals(600000L, statementParser.parseFrom("30-01-2017,6000,Salary").getAmountInCents());
+        Assertions.assertEquals(1250L, statementParser.parseFrom("30-01-2017,12.5,Cinema").getAmountInCents());
+        Assertions.assertEquals(1235L, statementParser.parseFrom("30-01-2017,12.345,Cinema").getAmountInCents());
+        Assertions.assertEquals(150000L, statementParser.parseFrom("30-01-2017,1.5e3,Rent").getAmountInCents());
+    }
+
+    @Test
+    public void shouldRoundAmountsTheSameWayEverywhere() throws Exception {
+        final LocalDate date = LocalDate.of(2017, Month.JANUARY, 30);
+        // 파서의 빠른 경로, 지수 표기 경로, double 생성자가 모두 0 에서 먼 쪽으로 반올림한다.
+        Assertions.assertEquals(-5026L, statementParser.parseFrom("30-01-2017,-50.255,Tesco").getAmountInCents());
+        Assertions.assertEquals(-5026L, statementParser.parseFrom("30-01-2017,-5.0255e1,Tesco").getAmountInCents());
+        Assertions.assertEquals(-5026L, new BankTransaction(date, -50.255, "Tesco").getAmountInCents());
+
+        Assertions.assertEquals(101L, statementParser.parseFrom("30-01-2017,1.005,Tesco").getAmountInCents());
+        Assertions.assertEquals(101L, statementParser.parseFrom("30-01-2017,1.005e0,Tesco").getAmountInCents());
+        Assertions.assertEquals(101L, new BankTransaction(date, 1.005, "Tesco").getAmountInCents());
+    }
+
+    @Test
+    public void shouldShareInternedDescriptions() throws Exception {
+        final DescriptionDictionary dictionary = new DescriptionDictionary();
+        final BankStatementParser parser = new BankStatementCSVParserV4(dictionary);
+        final ByteBuffer buffer = ByteBuffer.wrap("30-01-2017,-50,Tesco\n".getBytes(StandardCharsets.UTF_8));
+
+        final BankTransaction first = parser.parseFrom("30-01-2017,-50,Tesco");
+        final BankTransaction second = parser.parseFrom("01-02-2017,-20,Tesco");
+        final BankTransaction fromBytes = parser.parseFrom(buffer, 0, buffer.limit() - 1);
+        final TransactionTable table = TransactionTable.from(List.of(first, second, fromBytes), dictionary);
+
+        Assertions.assertSame(first.getDescription(), second.getDescription());
+        Assertions.assertSame(first.getDescription(), fromBytes.getDescription());
+        Assertions.assertEquals(1, dictionary.size());
+        Assertions.assertEquals(table.descriptionCode(0), table.descriptionCode(2));
+        Assertions.assertEquals("Tesco", table.description(dictionary.codeOf("Tesco")));
+    }
+
+    @Test
+    public void shouldDecodeCodesEncodedByOtherThreads() throws Exception {
+        final DescriptionDictionary dictionary = new DescriptionDictionary();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread * 500;
+                futures.add(executor.submit(() -> {
+                    // 스레드마다 다른 순서로 같은 description 들을 넣으면서 테이블이 여러 번 커진다.
+                    for (int i = 0; i < 2_000; i++) {
+                        final String description = "Shop " + (i + offset) % 2_000;
+                        final ByteBuffer buffer = ByteBuffer.wrap(description.getBytes(StandardCharsets.UTF_8));
+                        Assertions.assertEquals(description, dictionary.decode(dictionary.encode(buffer, 0, buffer.limit())));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(2_000, dictionary.size());
+    }
+
 }
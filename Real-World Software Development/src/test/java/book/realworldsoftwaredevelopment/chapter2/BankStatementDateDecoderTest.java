@@ -0,0 +1,42 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankStatementDateDecoder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeParseException;
+
+public class BankStatementDateDecoderTest {
+
+    @Test
+    public void shouldDecodeSameAsDateTimeFormatter() throws Exception {
+        for (LocalDate date = LocalDate.of(1899, 1, 1); date.getYear() < 2101; date = date.plusDays(1)) {
+            final String text = BankStatementDateDecoder.DATE_PATTERN.format(date);
+
+            Assertions.assertEquals(date, BankStatementDateDecoder.parse(text, 0, text.length()));
+            Assertions.assertEquals(date.toEpochDay(), BankStatementDateDecoder.toEpochDay(text, 0, text.length()));
+        }
+    }
+
+    @Test
+    public void shouldDecodeFromBytes() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap("x,29-02-2016,".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals(LocalDate.of(2016, Month.FEBRUARY, 29), BankStatementDateDecoder.parse(buffer, 2, 12));
+    }
+
+    @Test
+    public void shouldFallBackToDateTimeFormatterForMalformedInput() throws Exception {
+        // DateTimeFormatter 는 월말을 넘는 날짜를 말일로 보정한다.
+        Assertions.assertEquals(BankStatementDateDecoder.MALFORMED, BankStatementDateDecoder.toEpochDay("31-04-2017", 0, 10));
+        Assertions.assertEquals(LocalDate.of(2017, Month.APRIL, 30), BankStatementDateDecoder.parse("31-04-2017", 0, 10));
+
+        Assertions.assertThrows(DateTimeParseException.class, () -> BankStatementDateDecoder.parse("1-01-2017", 0, 9));
+        Assertions.assertThrows(DateTimeParseException.class, () -> BankStatementDateDecoder.parse("32-01-2017", 0, 10));
+        Assertions.assertThrows(DateTimeParseException.class, () -> BankStatementDateDecoder.parse("30-01-0000", 0, 10));
+    }
+}
@@ -0,0 +1,209 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v3.BankStatementProcessor;
+import book.realworldsoftwaredevelopment.chapter2.v3.BankStatementProcessorV3;
+import book.realworldsoftwaredevelopment.chapter2.v3.BankStatementSummary;
+import book.realworldsoftwaredevelopment.chapter2.v3.ColumnarBankStatementProcessor;
+import book.realworldsoftwaredevelopment.chapter2.v3.IncrementalBankStatementProcessor;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionBitmapIndex;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
+import book.realworldsoftwaredevelopment.chapter3.v5.BankStatementProcessorV5;
+import book.realworldsoftwaredevelopment.chapter3.v5.BankTransactionQuery;
+import book.realworldsoftwaredevelopment.chapter3.v6.BankTransactionProcessorV6;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+public class BankStatementProcessorTest {
+
+    private final List<BankTransaction> bankTransactions = List.of(
+            new BankTransaction(LocalDate.of(2017, Month.JANUARY, 30), -50, "Tesco"),
+            new BankTransaction(LocalDate.of(2017, Month.JANUARY, 30), -20.10, "Cinema"),
+            new BankTransaction(LocalDate.of(2017, Month.FEBRUARY, 1), 6000, "Salary"),
+            new BankTransaction(LocalDate.of(2017, Month.FEBRUARY, 2), 2000, "Royal Albert Hall"),
+            new BankTransaction(LocalDate.of(2018, Month.FEBRUARY, 1), 6000.05, "Salary"));
+
+    @Test
+    public void shouldCalculateTotals() throws Exception {
+        final BankStatementProcessor processor = new BankStatementProcessorV3(bankTransactions);
+
+        Assertions.assertEquals(1392995L, processor.calculateTotalAmountInCents());
+        Assertions.assertEquals(-7010L, processor.calculateTotalInMonthInCents(Month.JANUARY));
+        Assertions.assertEquals(1400005L, processor.calculateTotalInMonthInCents(Month.FEBRUARY));
+        Assertions.assertEquals(1200005L, processor.calculateTotalForCategoryInCents("Salary"));
+        Assertions.assertEquals(0L, processor.calculateTotalForCategoryInCents("Rent"));
+        Assertions.assertEquals(13929.95, processor.calculateTotalAmount(), 0.0d);
+    }
+
+    @Test
+    public void shouldCalculateSameTotalsFromColumns() throws Exception {
+        final BankStatementProcessor expected = new BankStatementProcessorV3(bankTransactions);
+        final TransactionTable transactionTable = TransactionTable.from(bankTransactions);
+        final BankStatementProcessor processor = new ColumnarBankStatementProcessor(transactionTable);
+
+        Assertions.assertEquals(expected.calculateTotalAmountInCents(), processor.calculateTotalAmountInCents());
+        for (final Month month : Month.values()) {
+            Assertions.assertEquals(expected.calculateTotalInMonthInCents(month), processor.calculateTotalInMonthInCents(month));
+        }
+        Assertions.assertEquals(expected.calculateTotalForCategoryInCents("Salary"), processor.calculateTotalForCategoryInCents("Salary"));
+        Assertions.assertEquals(0L, processor.calculateTotalForCategoryInCents("Rent"));
+        Assertions.assertEquals(bankTransactions.get(4), transactionTable.get(4));
+    }
+
+    @Test
+    public void shouldAnswerFromIndex() throws Exception {
+        final BankStatementProcessorV3 expected = new BankStatementProcessorV3(bankTransactions);
+        final BankStatementProcessorV3 processor = BankStatementProcessorV3.withIndex(bankTransactions);
+
+        Assertions.assertTrue(processor.getBankStatementIndex().isPresent());
+        for (final Month month : Month.values()) {
+            Assertions.assertEquals(expected.calculateTotalInMonthInCents(month), processor.calculateTotalInMonthInCents(month));
+            Assertions.assertEquals(expected.findTransactionsInMonth(month), processor.findTransactionsInMonth(month));
+        }
+        Assertions.assertEquals(1200005L, processor.calculateTotalForCategoryInCents("Salary"));
+        Assertions.assertEquals(expected.findTransactionsForCategory("Salary"), processor.findTransactionsForCategory("Salary"));
+        Assertions.assertEquals(0L, processor.calculateTotalForCategoryInCents("Rent"));
+        Assertions.assertTrue(processor.findTransactionsForCategory("Rent").isEmpty());
+    }
+
+    @Test
+    public void shouldSummarizeInOnePass() throws Exception {
+        final long[] expensive = new long[1];
+        final BankStatementSummary fromList = new BankStatementSummary()
+                .register((epochDay, amountInCents, description) -> expensive[0] += amountInCents >= 100_000 ? 1 : 0);
+        final BankStatementSummary fromColumns = new BankStatementSummary();
+
+        new BankStatementProcessorV3(bankTransactions).summarize(fromList);
+        new ColumnarBankStatementProcessor(TransactionTable.from(bankTransactions)).summarize(fromColumns);
+
+        for (final BankStatementSummary summary : List.of(fromList, fromColumns)) {
+            Assertions.assertEquals(1392995L, summary.calculateTotalAmountInCents());
+            Assertions.assertEquals(-7010L, summary.calculateTotalInMonthInCents(Month.JANUARY));
+            Assertions.assertEquals(1200005L, summary.calculateTotalForCategoryInCents("Salary"));
+            Assertions.assertEquals(5L, summary.getCount());
+            Assertions.assertEquals(-5000L, summary.getMinInCents());
+            Assertions.assertEquals(600005L, summary.getMaxInCents());
+            Assertions.assertEquals(2785.99, summary.getAverage(), 0.0d);
+        }
+        Assertions.assertEquals(3L, expensive[0]);
+    }
+
+    @Test
+    public void shouldSumCentsExactly() throws Exception {
+        final List<BankTransaction> smallAmounts = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            smallAmounts.add(new BankTransaction(LocalDate.of(2017, Month.MARCH, 1), 0.1, "Interest"));
+        }
+
+        final BankStatementProcessor processor = new BankStatementProcessorV3(smallAmounts);
+
+        Assertions.assertEquals(10_000_000L, processor.calculateTotalAmountInCents());
+        Assertions.assertEquals(100_000.0, processor.calculateTotalAmount(), 0.0d);
+    }
+    @Test
+    public void shouldKeepRunningTotalsWhenAppending() throws Exception {
+        final IncrementalBankStatementProcessor processor = new IncrementalBankStatementProcessor()
+                .appendAll(bankTransactions.subList(0, 2));
+
+        Assertions.assertEquals(-7010L, processor.calculateTotalAmountInCents());
+
+        final IncrementalBankStatementProcessor intraday = new IncrementalBankStatementProcessor()
+                .appendAll(bankTransactions.subList(2, 4));
+        processor.merge(intraday).append(bankTransactions.get(4));
+
+        Assertions.assertEquals(5, processor.getCount());
+        Assertions.assertEquals(1392995L, processor.calculateTotalAmountInCents());
+        Assertions.assertEquals(1400005L, processor.calculateTotalInMonthInCents(Month.FEBRUARY));
+        Assertions.assertEquals(1200005L, processor.calculateTotalForCategoryInCents("Salary"));
+        Assertions.assertEquals(-5000L, processor.getMinInCents());
+    }
+
+    @Test
+    public void shouldSelectSameRowsAsLambda() throws Exception {
+        final BankStatementProcessorV5 processor = new BankStatementProcessorV5(bankTransactions);
+        final BankTransactionQuery query = BankTransactionQuery.monthEquals(Month.FEBRUARY)
+                .and(BankTransactionQuery.descriptionEquals("Salary").not())
+                .or(BankTransactionQuery.amountBetween(-5000, -5000))
+                .or(bankTransaction -> bankTransaction.getDate().getYear() == 2018);
+
+        Assertions.assertEquals(
+                processor.findTransactions(bankTransaction -> query.test(bankTransaction)),
+                processor.findTransactions(query));
+        Assertions.assertEquals(
+                List.of(bankTransactions.get(0), bankTransactions.get(3), bankTransactions.get(4)),
+                processor.findTransactions(query));
+    }
+
+    @Test
+    public void shouldSelectSameRowsFromBitmapIndex() throws Exception {
+        final Random random = new Random(42);
+        final String[] descriptions = {"Tesco", "Salary", "Rent", "Cinema"};
+        final TransactionTable.Builder builder = new TransactionTable.Builder();
+        for (int row = 0; row < 10_000; row++) {
+            builder.add(17_000 + random.nextInt(730), random.nextInt(400_000) - 200_000, descriptions[random.nextInt(descriptions.length)]);
+        }
+        final TransactionTable table = builder.build();
+        final TransactionBitmapIndex index = TransactionBitmapIndex.build(table);
+        final BankTransactionQuery query = BankTransactionQuery.monthEquals(Month.FEBRUARY)
+                .and(BankTransactionQuery.amountBetween(-12_345, 67_890))
+                .or(BankTransactionQuery.descriptionEquals("Rent").and(BankTransactionQuery.amountGreaterThanEqual(150_000)))
+                .and(BankTransactionQuery.descriptionEquals("Cinema").not());
+
+        Assertions.assertEquals(query.select(table), query.select(index));
+        Assertions.assertEquals(table.size(), BankTransactionQuery.amountBetween(Long.MIN_VALUE, Long.MAX_VALUE).select(index).cardinality());
+        Assertions.assertEquals(0, BankTransactionQuery.descriptionEquals("Unknown").select(index).cardinality());
+    }
+
+    @Test
+    public void shouldSeparateYearsAndAnswerDateRanges() throws Exception {
+        final BankStatementProcessorV3 scanning = new BankStatementProcessorV3(bankTransactions);
+        final BankStatementProcessorV3 indexed = BankStatementProcessorV3.withIndex(bankTransactions);
+        final LocalDate from = LocalDate.of(2017, Month.JANUARY, 31);
+        final LocalDate to = LocalDate.of(2018, Month.FEBRUARY, 1);
+
+        for (final BankStatementProcessorV3 processor : List.of(scanning, indexed)) {
+            Assertions.assertEquals(800000L, processor.calculateTotalInMonthInCents(YearMonth.of(2017, Month.FEBRUARY)));
+            Assertions.assertEquals(600005L, processor.calculateTotalInMonthInCents(YearMonth.of(2018, Month.FEBRUARY)));
+            Assertions.assertEquals(1400005L, processor.calculateTotalBetweenInCents(from, to));
+            Assertions.assertEquals(0L, processor.calculateTotalBetweenInCents(to, from));
+            Assertions.assertEquals(bankTransactions.subList(2, 5), processor.findTransactionsBetween(from, to));
+        }
+        Assertions.assertEquals(bankTransactions.subList(0, 2),
+                new BankStatementProcessorV5(bankTransactions).findTransactionInMonth(YearMonth.of(2017, Month.JANUARY)));
+    }
+
+    @Test
+    public void shouldSummarizeInParallelDeterministically() throws Exception {
+        final Random random = new Random(7);
+        final List<BankTransaction> manyTransactions = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            manyTransactions.add(BankTransaction.ofCents(LocalDate.ofEpochDay(17_000 + random.nextInt(730)), random.nextInt(400_000) - 200_000, "Tesco"));
+        }
+        final BankTransactionProcessorV6 processor = new BankTransactionProcessorV6(manyTransactions);
+
+        Assertions.assertEquals(
+                processor.summarizeTransactionsInCents((acc, bankTransaction) -> acc + bankTransaction.getAmountInCents()),
+                processor.summarizeTransactionsInCentsInParallel((acc, bankTransaction) -> acc + bankTransaction.getAmountInCents(), Long::sum));
+
+        final double onCommonPool = processor.summarizeTransactionsInParallel(Collectors.summingDouble(BankTransaction::getAmount));
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int i = 0; i < 5; i++) {
+                Assertions.assertEquals(onCommonPool, (double) processor.summarizeTransactionsInParallel(
+                        Collectors.summingDouble(BankTransaction::getAmount), pool), 0.0d);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
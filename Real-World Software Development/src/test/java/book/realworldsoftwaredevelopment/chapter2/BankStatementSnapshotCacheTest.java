@@ -0,0 +1,130 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v3.TransactionTable;
+import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementCSVParserV4;
+import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementSnapshotCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+
+public class BankStatementSnapshotCacheTest {
+
+    private static final String STATEMENT = "30-01-2017,-50,Tesco\n01-02-2017,6000,Salary\n"
+            + "02-02-2017,2000,Royal Albert Hall\n01-01-2017,-12.5,Tesco\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldReadSameTableFromSnapshot() throws Exception {
+        for (final boolean deltaEncodeDates : new boolean[]{true, false}) {
+            final Path statement = write(STATEMENT);
+            final BankStatementSnapshotCache cache = new BankStatementSnapshotCache(tempDir.resolve("cache" + deltaEncodeDates), deltaEncodeDates);
+
+            final TransactionTable parsed = cache.load(statement, new BankStatementCSVParserV4());
+            Assertions.assertTrue(Files.exists(cache.snapshotOf(statement)));
+
+            // 스냅숏이 있으면 파서를 쓰지 않는다.
+            final TransactionTable cached = cache.load(statement, new FailingParser());
+
+            Assertions.assertEquals(parsed.size(), cached.size());
+            for (int row = 0; row < parsed.size(); row++) {
+                Assertions.assertEquals(parsed.get(row), cached.get(row));
+            }
+            Assertions.assertEquals(LocalDate.of(2017, Month.JANUARY, 1), cached.get(3).getDate());
+            Assertions.assertEquals(-1250L, cached.get(3).getAmountInCents());
+            Assertions.assertEquals(cached.descriptionCode(0), cached.descriptionCode(3));
+        }
+    }
+
+    @Test
+    public void shouldParseAgainWhenSourceChanges() throws Exception {
+        final Path statement = write(STATEMENT);
+        final BankStatementSnapshotCache cache = new BankStatementSnapshotCache(tempDir.resolve("cache"));
+        cache.load(statement, new BankStatementCSVParserV4());
+
+        // 크기와 수정 시각이 같아도 내용이 다르면 다시 파싱해야 한다.
+        final FileTime lastModified = Files.getLastModifiedTime(statement);
+        write(STATEMENT.replace("6000", "7000"));
+        Files.setLastModifiedTime(statement, lastModified);
+
+        final TransactionTable table = cache.load(statement, new BankStatementCSVParserV4());
+
+        Assertions.assertEquals(700000L, table.amountInCents(1));
+        Assertions.assertEquals(700000L, cache.load(statement, new FailingParser()).amountInCents(1));
+    }
+
+    @Test
+    public void shouldParseAgainWhenSnapshotIsCorrupt() throws Exception {
+        final Path statement = write(STATEMENT);
+        final BankStatementSnapshotCache cache = new BankStatementSnapshotCache(tempDir.resolve("cache"));
+        cache.load(statement, new BankStatementCSVParserV4());
+
+        final byte[] snapshot = Files.readAllBytes(cache.snapshotOf(statement));
+        Files.write(cache.snapshotOf(statement), Arrays.copyOf(snapshot, snapshot.length - 3));
+
+        final TransactionTable table = cache.load(statement, new BankStatementCSVParserV4());
+
+        Assertions.assertEquals(4, table.size());
+        Assertions.assertEquals("Royal Albert Hall", table.get(2).getDescription());
+    }
+
+    @Test
+    public void shouldKeepSeparateSnapshotsForSameFileName() throws Exception {
+        final Path january = Files.createDirectories(tempDir.resolve("january")).resolve("statement.csv");
+        final Path february = Files.createDirectories(tempDir.resolve("february")).resolve("statement.csv");
+        Files.write(january, "30-01-2017,-50,Tesco\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(february, "01-02-2017,6000,Salary\n02-02-2017,2000,Royal Albert Hall\n".getBytes(StandardCharsets.UTF_8));
+        final BankStatementSnapshotCache cache = new BankStatementSnapshotCache(tempDir.resolve("cache"));
+
+        Assertions.assertNotEquals(cache.snapshotOf(january), cache.snapshotOf(february));
+        cache.load(january, new BankStatementCSVParserV4());
+        cache.load(february, new BankStatementCSVParserV4());
+
+        Assertions.assertEquals("Tesco", cache.load(january, new FailingParser()).get(0).getDescription());
+        Assertions.assertEquals(2, cache.load(february, new FailingParser()).size());
+    }
+
+    @Test
+    public void shouldNotTrustCorruptRowCount() throws Exception {
+        final Path statement = write(STATEMENT);
+        final BankStatementSnapshotCache cache = new BankStatementSnapshotCache(tempDir.resolve("cache"));
+        cache.load(statement, new BankStatementCSVParserV4());
+
+        // 헤더의 행 수(magic, version, 원본 키 다음)를 터무니없이 크게 바꾼다.
+        final ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(cache.snapshotOf(statement)));
+        snapshot.putInt(2 * Integer.BYTES + 3 * Long.BYTES, Integer.MAX_VALUE);
+        Files.write(cache.snapshotOf(statement), snapshot.array());
+
+        final TransactionTable table = cache.load(statement, new BankStatementCSVParserV4());
+
+        Assertions.assertEquals(4, table.size());
+    }
+
+    private Path write(final String content) throws IOException {
+        return Files.write(tempDir.resolve("statement.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class FailingParser extends BankStatementCSVParserV4 {
+        @Override
+        public BankTransaction parseFrom(final String line) {
+            throw new AssertionError("Should read from snapshot");
+        }
+
+        @Override
+        public BankTransaction parseFrom(final ByteBuffer buffer, final int start, final int end) {
+            throw new AssertionError("Should read from snapshot");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v4.example.BankTransactionDAO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BankTransactionDAOTest {
+
+    private BankTransactionDAO bankTransactionDAO;
+
+    @BeforeEach
+    public void setUp() {
+        // 테스트마다 새 인메모리 H2 데이터베이스
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        bankTransactionDAO = new BankTransactionDAO(dataSource, 3);
+        bankTransactionDAO.createTableIfNotExists();
+    }
+
+    @Test
+    public void shouldInsertInBatchesAndReadInOrder() throws Exception {
+        final List<BankTransaction> bankTransactions = new ArrayList<>();
+        for (int day = 1; day <= 10; day++) {
+            bankTransactions.add(BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, day), day * 100L, "Shop " + day));
+        }
+
+        Assertions.assertEquals(10, bankTransactionDAO.createAll(bankTransactions));
+
+        final List<BankTransaction> result = new ArrayList<>();
+        bankTransactionDAO.readAll(result::add);
+        Assertions.assertEquals(bankTransactions, result);
+    }
+
+    @Test
+    public void shouldReadUpdateAndDelete() throws Exception {
+        final BankTransaction tesco = BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, 30), -5000, "Tesco");
+        final long id = bankTransactionDAO.insert(tesco);
+
+        Assertions.assertEquals(tesco, bankTransactionDAO.read(id));
+
+        final BankTransaction salary = BankTransaction.ofCents(LocalDate.of(2017, Month.FEBRUARY, 1), 600000, "Salary");
+        Assertions.assertEquals(salary, bankTransactionDAO.update(id, salary));
+        Assertions.assertEquals(salary, bankTransactionDAO.read(id));
+        Assertions.assertNull(bankTransactionDAO.update(id + 1, salary));
+
+        Assertions.assertTrue(bankTransactionDAO.delete(id));
+        Assertions.assertNull(bankTransactionDAO.read(id));
+        Assertions.assertFalse(bankTransactionDAO.delete(id));
+    }
+
+    @Test
+    public void shouldReturnIdOfCreatedTransaction() throws Exception {
+        final long id = bankTransactionDAO.create(LocalDate.of(2017, Month.JANUARY, 30), -50.255, "Tesco");
+
+        Assertions.assertEquals(BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, 30), -5026, "Tesco"),
+                bankTransactionDAO.read(id));
+    }
+
+    @Test
+    public void shouldDeleteOnlyOneOfIdenticalTransactions() throws Exception {
+        final BankTransaction tesco = BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, 30), -5000, "Tesco");
+        final long first = bankTransactionDAO.insert(tesco);
+        final long second = bankTransactionDAO.insert(tesco);
+
+        Assertions.assertEquals(tesco, bankTransactionDAO.delete(tesco));
+        Assertions.assertNull(bankTransactionDAO.read(first));
+        Assertions.assertEquals(tesco, bankTransactionDAO.read(second));
+
+        Assertions.assertEquals(tesco, bankTransactionDAO.delete(tesco));
+        Assertions.assertNull(bankTransactionDAO.delete(tesco));
+    }
+
+    @Test
+    public void shouldDeleteDifferentRowsConcurrently() throws Exception {
+        final BankTransaction tesco = BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, 30), -5000, "Tesco");
+        for (int i = 0; i < 4; i++) {
+            bankTransactionDAO.insert(tesco);
+        }
+
+        // 같은 값을 동시에 지워도 각자 다른 행을 지워야 한다.
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<BankTransaction>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return bankTransactionDAO.delete(tesco);
+                }));
+            }
+            start.countDown();
+            for (final Future<BankTransaction> future : futures) {
+                Assertions.assertEquals(tesco, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final List<BankTransaction> result = new ArrayList<>();
+        bankTransactionDAO.readAll(result::add);
+        Assertions.assertTrue(result.isEmpty());
+    }
+}
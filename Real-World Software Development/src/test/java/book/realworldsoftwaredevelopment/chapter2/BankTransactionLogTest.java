@@ -0,0 +1,154 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v3.IncrementalBankStatementProcessor;
+import book.realworldsoftwaredevelopment.chapter2.v4.BankTransactionLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BankTransactionLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldReplayAcrossSegmentsAfterReopen() throws Exception {
+        final List<BankTransaction> bankTransactions = new ArrayList<>();
+        for (int day = 1; day <= 28; day++) {
+            bankTransactions.add(BankTransaction.ofCents(LocalDate.of(2017, Month.FEBRUARY, day), day * 100L, "Shop " + day % 3));
+        }
+        // 레코드 몇 개마다 새 세그먼트로 넘어가도록 작게 잡는다.
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir, 100, 5)) {
+            Assertions.assertEquals(27, log.appendAll(bankTransactions));
+        }
+        Assertions.assertTrue(segments().size() > 1);
+
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir, 100, 5)) {
+            Assertions.assertEquals(28, log.size());
+            Assertions.assertEquals(bankTransactions.get(17), log.read(17));
+
+            final IncrementalBankStatementProcessor processor = new IncrementalBankStatementProcessor();
+            log.replay(processor::append);
+            Assertions.assertEquals(28, processor.getCount());
+            Assertions.assertEquals(406.0, processor.calculateTotalAmount());
+
+            // 다시 연 로그에 이어서 쓴다.
+            Assertions.assertEquals(28, log.append(BankTransaction.ofCents(LocalDate.of(2017, Month.MARCH, 1), -100, "Tesco")));
+        }
+
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir, 100, 5)) {
+            Assertions.assertEquals(29, log.size());
+            Assertions.assertEquals("Tesco", log.read(28).getDescription());
+        }
+    }
+
+    @Test
+    public void shouldDropTornRecordAtEnd() throws Exception {
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir)) {
+            log.append(BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, 30), -5000, "Tesco"));
+            log.append(BankTransaction.ofCents(LocalDate.of(2017, Month.FEBRUARY, 1), 600000, "Salary"));
+        }
+        // 마지막 레코드를 쓰다가 멈춘 것처럼 끝을 잘라낸다.
+        final Path segment = segments().get(0);
+        final long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir)) {
+            Assertions.assertEquals(1, log.size());
+            log.append(BankTransaction.ofCents(LocalDate.of(2017, Month.FEBRUARY, 2), 200000, "Royal Albert Hall"));
+        }
+
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir)) {
+            final List<BankTransaction> result = new ArrayList<>();
+            log.replay(result::add);
+            Assertions.assertEquals(2, result.size());
+            Assertions.assertEquals("Tesco", result.get(0).getDescription());
+            Assertions.assertEquals("Royal Albert Hall", result.get(1).getDescription());
+        }
+    }
+
+    @Test
+    public void shouldKeepSequenceWhenSegmentRollFails() throws Exception {
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir, 100, 5)) {
+            // 레코드가 26바이트라 100바이트 세그먼트에 세 건이 들어가고 네 번째에서 새 세그먼트로 넘어간다.
+            for (int day = 1; day <= 3; day++) {
+                log.append(transaction(day));
+            }
+            // 다음 세그먼트 파일이 이미 있으면 새 세그먼트를 만들지 못한다.
+            final Path blocker = Files.createFile(tempDir.resolve(String.format("%020d.log", 3)));
+            Assertions.assertThrows(FileAlreadyExistsException.class, () -> log.append(transaction(4)));
+            Assertions.assertEquals(3, log.size());
+            Files.delete(blocker);
+
+            Assertions.assertEquals(3, log.append(transaction(4)));
+            Assertions.assertEquals(4, log.size());
+            Assertions.assertEquals(transaction(4), log.read(3));
+            Assertions.assertEquals(transaction(3), log.read(2));
+        }
+
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir, 100, 5)) {
+            final List<BankTransaction> result = new ArrayList<>();
+            log.replay(result::add);
+            Assertions.assertEquals(List.of(transaction(1), transaction(2), transaction(3), transaction(4)), result);
+        }
+    }
+
+    @Test
+    public void shouldKeepBufferedRecordsWhenFlushFails() throws Exception {
+        final Field channelField = BankTransactionLog.class.getDeclaredField("channel");
+        channelField.setAccessible(true);
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir)) {
+            log.append(transaction(1));
+            log.append(transaction(2));
+
+            // 쓰기 채널을 잠시 읽기 전용 채널로 바꿔서 flush 를 실패시킨다.
+            final Object writable = channelField.get(log);
+            try (FileChannel readOnly = FileChannel.open(segments().get(0), StandardOpenOption.READ)) {
+                channelField.set(log, readOnly);
+                Assertions.assertThrows(NonWritableChannelException.class, log::sync);
+            } finally {
+                channelField.set(log, writable);
+            }
+
+            Assertions.assertEquals(2, log.append(transaction(3)));
+            Assertions.assertEquals(transaction(1), log.read(0));
+            Assertions.assertEquals(transaction(2), log.read(1));
+            Assertions.assertEquals(transaction(3), log.read(2));
+        }
+
+        try (BankTransactionLog log = BankTransactionLog.open(tempDir)) {
+            final List<BankTransaction> result = new ArrayList<>();
+            log.replay(result::add);
+            Assertions.assertEquals(List.of(transaction(1), transaction(2), transaction(3)), result);
+        }
+    }
+
+    private static BankTransaction transaction(final int day) {
+        return BankTransaction.ofCents(LocalDate.of(2017, Month.FEBRUARY, day), day * 100L, "Shop " + day);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            final List<Path> segments = new ArrayList<>();
+            files.filter(path -> path.toString().endsWith(".log")).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+}
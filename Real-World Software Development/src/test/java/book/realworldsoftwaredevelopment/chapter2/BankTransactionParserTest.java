@@ -0,0 +1,78 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v4.example.BankTransactionParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BankTransactionParserTest {
+
+    private final BankTransactionParser bankTransactionParser = new BankTransactionParser();
+
+    @Test
+    public void shouldParseOneJsonTransaction() throws Exception {
+        final BankTransaction result = bankTransactionParser.parseFromJSON(
+                "{\"date\": \"30-01-2017\", \"amount\": -50.255, \"description\": \"Tesco\"}");
+
+        Assertions.assertEquals(LocalDate.of(2017, Month.JANUARY, 30), result.getDate());
+        Assertions.assertEquals(-5026L, result.getAmountInCents());
+        Assertions.assertEquals("Tesco", result.getDescription());
+    }
+
+    @Test
+    public void shouldStreamJsonTransactions() throws Exception {
+        final String array = "{\"bank\": {\"name\": \"X\"}, \"transactions\": ["
+                + "{\"date\": \"30-01-2017\", \"amount\": -50, \"description\": \"Tesco\", \"tags\": [1, 2]},"
+                + "{\"description\": \"Salary\", \"amount\": \"6000\", \"date\": \"01-02-2017\"}]}";
+        final String ndjson = "{\"date\": \"30-01-2017\", \"amount\": -50, \"description\": \"Tesco\"}\n"
+                + "{\"date\": \"01-02-2017\", \"amount\": 6000, \"description\": \"Salary\"}\n";
+
+        for (final String json : new String[]{array, ndjson}) {
+            final List<BankTransaction> result = new ArrayList<>();
+            bankTransactionParser.parseFromJSON(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), result::add);
+
+            Assertions.assertEquals(2, result.size());
+            Assertions.assertEquals(-5000L, result.get(0).getAmountInCents());
+            Assertions.assertEquals(LocalDate.of(2017, Month.FEBRUARY, 1), result.get(1).getDate());
+            Assertions.assertEquals("Salary", result.get(1).getDescription());
+        }
+    }
+
+    @Test
+    public void shouldStreamXmlTransactions() throws Exception {
+        final String xml = "<?xml version=\"1.0\"?>\n<statement><account>1</account><transactions>"
+                + "<transaction><date>30-01-2017</date><amount>-50</amount><description>Tesco &amp; Co</description></transaction>"
+                + "<transaction><!-- 급여 --><description>Salary</description><memo><b>x</b></memo>"
+                + "<amount> 6000 </amount><date>01-02-2017</date></transaction>"
+                + "</transactions></statement>";
+
+        final List<BankTransaction> result = new ArrayList<>();
+        bankTransactionParser.parseFromXML(new StringReader(xml), result::add);
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("Tesco & Co", result.get(0).getDescription());
+        Assertions.assertEquals(600000L, result.get(1).getAmountInCents());
+        Assertions.assertEquals(LocalDate.of(2017, Month.FEBRUARY, 1), result.get(1).getDate());
+    }
+
+    @Test
+    public void shouldRejectIncompleteOrMalformedInput() throws Exception {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bankTransactionParser.parseFromJSON("{\"date\": \"30-01-2017\", \"amount\": -50}"));
+        Assertions.assertThrows(IOException.class,
+                () -> bankTransactionParser.parseFromXML(new StringReader("<transaction><date>30-01-2017"), result -> { }));
+        // 외부 엔티티를 읽지 않는다.
+        Assertions.assertThrows(IOException.class, () -> bankTransactionParser.parseFromXML(new StringReader(
+                "<!DOCTYPE t [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><transaction><description>&x;</description></transaction>"),
+                result -> { }));
+    }
+}
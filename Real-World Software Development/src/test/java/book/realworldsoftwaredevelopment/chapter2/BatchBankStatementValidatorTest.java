@@ -0,0 +1,87 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter3.v7.BankStatementValidator;
+import book.realworldsoftwaredevelopment.chapter3.v7.BatchBankStatementValidator;
+import book.realworldsoftwaredevelopment.chapter3.v7.BatchValidationResult;
+import book.realworldsoftwaredevelopment.chapter3.v7.ParallelBankStatementValidator;
+import book.realworldsoftwaredevelopment.chapter3.v7.ValidationReport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchBankStatementValidatorTest {
+
+    private final List<String> descriptions = List.of("Tesco", "x".repeat(101), "Salary", "Rent", "Cinema", "Tesco");
+    private final List<String> dates = List.of("2017-01-30", "2017-02-29", "2999-01-01", "2016-02-29", "+12345-01-01", "30-01-2017");
+    private final List<String> amounts = List.of("-50", " 1.5e3 ", "6000d", "0x1.8p1", "12,50", "NaN");
+
+    @Test
+    public void shouldRecordErrorCodesPerRow() throws Exception {
+        final BatchValidationResult result = new BatchBankStatementValidator(LocalDate.of(2020, 1, 1))
+                .validate(descriptions, dates, amounts);
+
+        Assertions.assertEquals(BatchBankStatementValidator.VALID, result.errorCode(0));
+        Assertions.assertEquals(BatchBankStatementValidator.DESCRIPTION_TOO_LONG | BatchBankStatementValidator.INVALID_DATE, result.errorCode(1));
+        Assertions.assertEquals(BatchBankStatementValidator.DATE_IN_FUTURE, result.errorCode(2));
+        Assertions.assertTrue(result.isValid(3));
+        Assertions.assertEquals(BatchBankStatementValidator.DATE_IN_FUTURE | BatchBankStatementValidator.INVALID_AMOUNT, result.errorCode(4));
+        Assertions.assertEquals(BatchBankStatementValidator.INVALID_DATE, result.errorCode(5));
+        Assertions.assertEquals(4, result.invalidRowCount());
+        Assertions.assertEquals(2, result.countOf(BatchBankStatementValidator.INVALID_DATE));
+    }
+
+    @Test
+    public void shouldMatchBankStatementValidatorMessages() throws Exception {
+        final BatchValidationResult result = new BatchBankStatementValidator().validate(descriptions, dates, amounts);
+
+        for (int row = 0; row < descriptions.size(); row++) {
+            Assertions.assertEquals(
+                    new BankStatementValidator(descriptions.get(row), dates.get(row), amounts.get(row)).validate().getErrors(),
+                    result.toNotification(row).getErrors());
+        }
+    }
+
+    @Test
+    public void shouldCountErrorsAndKeepBoundedSamples() throws Exception {
+        final int rows = 100_000;
+        final List<String> manyDates = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            manyDates.add(row % 2 == 0 ? "2017-01-30" : "30-01-2017");
+        }
+        final List<String> manyDescriptions = Collections.nCopies(rows, "Tesco");
+        final List<String> manyAmounts = Collections.nCopies(rows, "-50");
+        final ParallelBankStatementValidator validator = new ParallelBankStatementValidator(
+                new BatchBankStatementValidator(), ForkJoinPool.commonPool(), 3, ParallelBankStatementValidator.NO_LIMIT);
+
+        final ValidationReport report = validator.validate(manyDescriptions, manyDates, manyAmounts);
+
+        Assertions.assertEquals(rows, report.getCheckedRows());
+        Assertions.assertEquals(rows / 2, report.countOf(BatchBankStatementValidator.INVALID_DATE));
+        Assertions.assertEquals(0, report.countOf(BatchBankStatementValidator.INVALID_AMOUNT));
+        Assertions.assertEquals(List.of(
+                "row 1: Invalid format for date (30-01-2017)",
+                "row 3: Invalid format for date (30-01-2017)",
+                "row 5: Invalid format for date (30-01-2017)"), report.samplesOf(BatchBankStatementValidator.INVALID_DATE));
+        Assertions.assertFalse(report.isRejected());
+
+        final ValidationReport rejected = new ParallelBankStatementValidator(
+                new BatchBankStatementValidator(), ForkJoinPool.commonPool(), 3, 1_000)
+                .validate(manyDescriptions, manyDates, manyAmounts);
+
+        Assertions.assertTrue(rejected.isRejected());
+        Assertions.assertTrue(rejected.getCheckedRows() < rows);
+    }
+
+    @Test
+    public void shouldRejectNegativeLimits() throws Exception {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelBankStatementValidator(
+                new BatchBankStatementValidator(), ForkJoinPool.commonPool(), -1, ParallelBankStatementValidator.NO_LIMIT));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelBankStatementValidator(
+                new BatchBankStatementValidator(), ForkJoinPool.commonPool(), 10, -1));
+    }
+}
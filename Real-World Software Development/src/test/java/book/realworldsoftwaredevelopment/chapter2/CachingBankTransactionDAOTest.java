@@ -0,0 +1,85 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v4.example.CachingBankTransactionDAO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CachingBankTransactionDAOTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private CachingBankTransactionDAO bankTransactionDAO;
+
+    @BeforeEach
+    public void setUp() {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        bankTransactionDAO = new CachingBankTransactionDAO(dataSource, 100, 2, Duration.ofMinutes(1), now::get);
+        bankTransactionDAO.createTableIfNotExists();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() throws Exception {
+        final long first = bankTransactionDAO.insert(transaction(1));
+        final long second = bankTransactionDAO.insert(transaction(2));
+        final long third = bankTransactionDAO.insert(transaction(3));
+
+        bankTransactionDAO.read(first);
+        bankTransactionDAO.read(second);
+        bankTransactionDAO.read(first);
+        // 가장 오래 쓰지 않은 second 를 버린다.
+        bankTransactionDAO.read(third);
+
+        Assertions.assertEquals(transaction(1), bankTransactionDAO.read(first));
+        Assertions.assertEquals(transaction(2), bankTransactionDAO.read(second));
+        Assertions.assertEquals(2, bankTransactionDAO.getHitCount());
+        Assertions.assertEquals(4, bankTransactionDAO.getMissCount());
+        Assertions.assertEquals(2, bankTransactionDAO.getEvictionCount());
+        Assertions.assertEquals(2, bankTransactionDAO.size());
+    }
+
+    @Test
+    public void shouldExpireAfterTimeToLive() throws Exception {
+        final long id = bankTransactionDAO.insert(transaction(1));
+        bankTransactionDAO.read(id);
+
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        bankTransactionDAO.read(id);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        bankTransactionDAO.read(id);
+
+        Assertions.assertEquals(1, bankTransactionDAO.getHitCount());
+        Assertions.assertEquals(2, bankTransactionDAO.getMissCount());
+        Assertions.assertEquals(1, bankTransactionDAO.getEvictionCount());
+    }
+
+    @Test
+    public void shouldNotReturnStaleTransactionAfterWrite() throws Exception {
+        final long id = bankTransactionDAO.insert(transaction(1));
+        bankTransactionDAO.read(id);
+
+        bankTransactionDAO.update(id, transaction(2));
+        Assertions.assertEquals(transaction(2), bankTransactionDAO.read(id));
+
+        bankTransactionDAO.delete(transaction(2));
+        Assertions.assertNull(bankTransactionDAO.read(id));
+
+        final long other = bankTransactionDAO.insert(transaction(3));
+        bankTransactionDAO.read(other);
+        Assertions.assertTrue(bankTransactionDAO.delete(other));
+        Assertions.assertNull(bankTransactionDAO.read(other));
+        Assertions.assertEquals(0, bankTransactionDAO.getEvictionCount());
+    }
+
+    private static BankTransaction transaction(final int day) {
+        return BankTransaction.ofCents(LocalDate.of(2017, Month.JANUARY, day), day * 100L, "Shop " + day);
+    }
+}
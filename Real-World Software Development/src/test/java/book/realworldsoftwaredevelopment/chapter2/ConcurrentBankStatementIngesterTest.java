@@ -0,0 +1,60 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementCSVParserV4;
+import book.realworldsoftwaredevelopment.chapter2.v4.ConcurrentBankStatementIngester;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Month;
+import java.util.List;
+
+public class ConcurrentBankStatementIngesterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldResolveDirectoryAndGlob() throws Exception {
+        write("2017/january.csv", "");
+        write("2017/february.csv", "");
+        write("2017/notes.txt", "");
+        write("2018/accounts/march.csv", "");
+
+        Assertions.assertEquals(3, ConcurrentBankStatementIngester.resolve(tempDir, "2017").size());
+        Assertions.assertEquals(List.of(tempDir.resolve("2017/february.csv"), tempDir.resolve("2017/january.csv")),
+                ConcurrentBankStatementIngester.resolve(tempDir, "2017/*.csv"));
+        Assertions.assertEquals(3, ConcurrentBankStatementIngester.resolve(tempDir, "**.csv").size());
+        Assertions.assertEquals(1, ConcurrentBankStatementIngester.resolve(tempDir, "*/accounts/*.csv").size());
+    }
+
+    @Test
+    public void shouldMergeFilesAndReportFailures() throws Exception {
+        final List<Path> files = List.of(
+                write("a.csv", "30-01-2017,-50,Tesco\n01-02-2017,6000,Salary\n"),
+                write("b.csv", "not a statement\n"),
+                write("c.csv", "02-02-2017,2000,Royal Albert Hall\n01-01-2017,-12.5,Tesco\n"));
+
+        final ConcurrentBankStatementIngester.IngestionReport report =
+                new ConcurrentBankStatementIngester(new BankStatementCSVParserV4(), 2).ingest(files);
+
+        Assertions.assertEquals(3, report.getFileResults().size());
+        Assertions.assertEquals(2, report.getFileResults().get(0).getTransactionCount());
+        Assertions.assertTrue(report.getFileResults().get(1).isFailed());
+        Assertions.assertEquals(1, report.getFailedFileCount());
+        // 실패한 파일은 합계에 들어가지 않는다.
+        Assertions.assertEquals(4, report.getBankStatementProcessor().getCount());
+        Assertions.assertEquals(7937.5, report.getBankStatementProcessor().calculateTotalAmount());
+        Assertions.assertEquals(-62.5, report.getBankStatementProcessor().caculateTotalInMonth(Month.JANUARY));
+    }
+
+    private Path write(final String name, final String content) throws IOException {
+        final Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter3.v7.CsvExporter;
+import book.realworldsoftwaredevelopment.chapter3.v7.HtmlExporter;
+import book.realworldsoftwaredevelopment.chapter3.v7.JsonExporter;
+import book.realworldsoftwaredevelopment.chapter3.v7.SummaryStatistics;
+import book.realworldsoftwaredevelopment.chapter3.v7.SummaryStatisticsAccumulator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class ExporterTest {
+
+    private final SummaryStatistics basic = new SummaryStatistics(6000.5, 6000, -50, 2000.25);
+
+    @Test
+    public void shouldExportCsvAndJson() throws Exception {
+        final SummaryStatisticsAccumulator accumulator = new SummaryStatisticsAccumulator();
+        accumulator.acceptCents(5000);
+        accumulator.acceptCents(5000);
+        final List<SummaryStatistics> statistics = List.of(basic, accumulator.toStatistics());
+
+        Assertions.assertEquals("sum,max,min,average,count,variance,p50,p95,p99\n"
+                        + "6000.5,6000,-50,2000.25,,,,,\n"
+                        + "100,50,50,50,2,0,50,50,50\n",
+                new CsvExporter().exportAll(statistics, new StringBuilder()).toString());
+        Assertions.assertEquals("[{\"sum\":6000.5,\"max\":6000,\"min\":-50,\"average\":2000.25}]\n",
+                new JsonExporter().export(basic));
+    }
+
+    @Test
+    public void shouldStreamHtmlToOutputStream() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new HtmlExporter().exportAllTo(List.of(basic, basic), out);
+
+        final String html = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(html.startsWith("<!doctype html>"));
+        Assertions.assertTrue(html.contains("<tr><td>2</td><td>6000.5</td>"));
+        Assertions.assertTrue(html.endsWith("</html>\n"));
+    }
+}
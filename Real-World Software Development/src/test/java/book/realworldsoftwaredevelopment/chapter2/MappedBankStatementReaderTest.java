@@ -0,0 +1,81 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementCSVParserV4;
+import book.realworldsoftwaredevelopment.chapter2.v4.MappedBankStatementReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedBankStatementReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldReadAllLines() throws Exception {
+        final Path statement = write("30-01-2017,-50,Tesco\r\n01-02-2017,6000,Salary\n\n02-02-2017,2000,Royal Albert Hall");
+
+        final List<BankTransaction> result = read(new MappedBankStatementReader(), statement);
+
+        Assertions.assertEquals(3, result.size());
+        Assertions.assertEquals("Tesco", result.get(0).getDescription());
+        Assertions.assertEquals(LocalDate.of(2017, Month.FEBRUARY, 2), result.get(2).getDate());
+        Assertions.assertEquals(200000L, result.get(2).getAmountInCents());
+    }
+
+    @Test
+    public void shouldSplitRegionsOnLineBoundaries() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 28; i++) {
+            content.append(String.format("%02d-02-2017,%d,Shop %d%n", i, i, i));
+        }
+        final Path statement = write(content.toString());
+
+        // 한 줄보다 조금 긴 영역으로 나눠 매핑해도 모든 줄이 온전히 읽혀야 한다.
+        final List<BankTransaction> result = read(new MappedBankStatementReader(32), statement);
+
+        Assertions.assertEquals(28, result.size());
+        for (int i = 0; i < 28; i++) {
+            Assertions.assertEquals("Shop " + (i + 1), result.get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void shouldReadLinesFillingWholeRegion() throws Exception {
+        // 두 줄 모두 '\n' 까지 정확히 21바이트라 영역 끝이 줄 끝과 겹친다.
+        final Path statement = write("30-01-2017,-50,Tesco\n01-02-2017,60,Sale\n");
+
+        final List<BankTransaction> result = read(new MappedBankStatementReader(21), statement);
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("Tesco", result.get(0).getDescription());
+        Assertions.assertEquals("Sale", result.get(1).getDescription());
+    }
+
+    @Test
+    public void shouldRejectLineLongerThanRegion() throws Exception {
+        final Path statement = write("30-01-2017,-50,Tesco\n01-02-2017,6000,Salary\n");
+
+        Assertions.assertThrows(IOException.class, () -> read(new MappedBankStatementReader(8), statement));
+    }
+
+    private Path write(final String content) throws IOException {
+        return Files.write(tempDir.resolve("statement.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<BankTransaction> read(final MappedBankStatementReader reader, final Path path) throws IOException {
+        final List<BankTransaction> result = new ArrayList<>();
+        reader.read(path, new BankStatementCSVParserV4(), result::add);
+        return result;
+    }
+}
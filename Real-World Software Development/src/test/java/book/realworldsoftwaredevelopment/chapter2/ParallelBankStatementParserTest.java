@@ -0,0 +1,69 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter2.v2.BankTransaction;
+import book.realworldsoftwaredevelopment.chapter2.v4.BankStatementCSVParserV4;
+import book.realworldsoftwaredevelopment.chapter2.v4.ParallelBankStatementParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelBankStatementParserTest {
+
+    private static final int ROWS = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    private ForkJoinPool pool;
+    private ParallelBankStatementParser parser;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        // 작은 구간으로 잘게 나눠서 분할 지점이 줄 중간에 떨어지는 경우를 만든다.
+        parser = new ParallelBankStatementParser(new BankStatementCSVParserV4(), pool, 64);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldKeepOriginalOrder() throws Exception {
+        final List<BankTransaction> result = parser.parse(writeStatement());
+
+        Assertions.assertEquals(ROWS, result.size());
+        for (int i = 0; i < ROWS; i++) {
+            Assertions.assertEquals("Shop " + i, result.get(i).getDescription());
+        }
+    }
+
+    @Test
+    public void shouldParseEveryLineUnordered() throws Exception {
+        final ConcurrentLinkedQueue<BankTransaction> result = new ConcurrentLinkedQueue<>();
+
+        parser.parseUnordered(writeStatement(), result::add);
+
+        Assertions.assertEquals(ROWS, result.size());
+        Assertions.assertEquals((long) ROWS * (ROWS - 1) / 2 * 100,
+                result.stream().mapToLong(BankTransaction::getAmountInCents).sum());
+    }
+
+    private Path writeStatement() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            content.append(String.format("%02d-%02d-2017,%d,Shop %d\n", i % 28 + 1, i % 12 + 1, i, i));
+        }
+        return Files.write(tempDir.resolve("statement.csv"), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,72 @@
+package book.realworldsoftwaredevelopment.chapter2;
+
+import book.realworldsoftwaredevelopment.chapter3.v7.DistributionStatistics;
+import book.realworldsoftwaredevelopment.chapter3.v7.SummaryStatisticsAccumulator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SummaryStatisticsAccumulatorTest {
+
+    @Test
+    public void shouldCalculateDistributionInOnePass() throws Exception {
+        final SummaryStatisticsAccumulator accumulator = new SummaryStatisticsAccumulator();
+        for (int amount = 1; amount <= 10_000; amount++) {
+            accumulator.acceptCents(amount * 100L);
+        }
+
+        final DistributionStatistics statistics = accumulator.toStatistics();
+
+        Assertions.assertEquals(10_000, statistics.getCount());
+        Assertions.assertEquals(50_005_000d, statistics.getSum(), 0.0d);
+        Assertions.assertEquals(5_000.5, statistics.getAverage(), 1e-9);
+        Assertions.assertEquals((10_000d * 10_000d - 1) / 12, statistics.getVariance(), 1e-3);
+        Assertions.assertEquals(5_000, statistics.getP50(), 5_000 * 0.01);
+        Assertions.assertEquals(9_500, statistics.getP95(), 9_500 * 0.01);
+        Assertions.assertEquals(9_900, statistics.getP99(), 9_900 * 0.01);
+        Assertions.assertArrayEquals(new long[]{9, 90, 900, 9_000, 1}, statistics.getHistogramCounts());
+        Assertions.assertEquals(1.0, statistics.getHistogramLowerBounds()[0], 0.0d);
+    }
+
+    @Test
+    public void shouldUseNearestRankQuantiles() throws Exception {
+        final SummaryStatisticsAccumulator accumulator = new SummaryStatisticsAccumulator();
+        for (int amount = 1; amount <= 10; amount++) {
+            accumulator.acceptCents(amount * 100L);
+        }
+
+        // nearest-rank: 정렬했을 때 ceil(q * 10) 번째 값. floor(q * 9) 번 인덱스로 셌다면 p95 는 9 였다.
+        Assertions.assertEquals(1, accumulator.getQuantile(0), 1 * 0.01);
+        Assertions.assertEquals(3, accumulator.getQuantile(0.25), 3 * 0.01);
+        Assertions.assertEquals(5, accumulator.getQuantile(0.5), 5 * 0.01);
+        Assertions.assertEquals(10, accumulator.getQuantile(0.95), 10 * 0.01);
+        Assertions.assertEquals(10, accumulator.getQuantile(1), 10 * 0.01);
+
+        final SummaryStatisticsAccumulator pair = new SummaryStatisticsAccumulator();
+        pair.acceptCents(100);
+        pair.acceptCents(10_000);
+        Assertions.assertEquals(1, pair.getQuantile(0.5), 1 * 0.01);
+        Assertions.assertEquals(100, pair.getQuantile(0.95), 100 * 0.01);
+    }
+
+    @Test
+    public void shouldMergePartialResults() throws Exception {
+        final SummaryStatisticsAccumulator whole = new SummaryStatisticsAccumulator();
+        final SummaryStatisticsAccumulator left = new SummaryStatisticsAccumulator();
+        final SummaryStatisticsAccumulator right = new SummaryStatisticsAccumulator();
+        for (long cents = -50_000; cents <= 150_000; cents += 7) {
+            whole.acceptCents(cents);
+            (cents < 20_000 ? left : right).acceptCents(cents);
+        }
+
+        final DistributionStatistics expected = whole.toStatistics();
+        final DistributionStatistics merged = left.combine(right).toStatistics();
+
+        Assertions.assertEquals(expected.getCount(), merged.getCount());
+        Assertions.assertEquals(expected.getSum(), merged.getSum(), 0.0d);
+        Assertions.assertEquals(expected.getMin(), merged.getMin(), 0.0d);
+        Assertions.assertEquals(expected.getVariance(), merged.getVariance(), expected.getVariance() * 1e-12);
+        Assertions.assertEquals(expected.getP50(), merged.getP50(), 0.0d);
+        Assertions.assertEquals(expected.getP99(), merged.getP99(), 0.0d);
+        Assertions.assertArrayEquals(expected.getHistogramCounts(), merged.getHistogramCounts());
+    }
+}